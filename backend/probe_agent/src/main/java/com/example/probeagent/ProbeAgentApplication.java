@@ -0,0 +1,15 @@
+package com.example.probeagent;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class ProbeAgentApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ProbeAgentApplication.class, args);
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.example.probeagent.client;
+
+
+import com.example.probeagent.model.AgentAssignment;
+import com.example.probeagent.model.AgentProbeResult;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Обмен с scheduler_service: список своих серверов и отправка пачек результатов в gzip.
+ */
+@Component
+@RequiredArgsConstructor
+public class SchedulerClient {
+
+    private static final String AGENT_TOKEN = "X-Agent-Token";
+
+    private static final TypeReference<List<AgentAssignment>> ASSIGNMENTS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${agent.id}")
+    private String agentId;
+
+    @Value("${agent.schedulerUrl}")
+    private String schedulerUrl;
+
+    @Value("${agent.token:}")
+    private String token;
+
+    @Value("${agent.requestTimeout:10000}")
+    private long requestTimeout;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public List<AgentAssignment> fetchAssignments() throws IOException, InterruptedException {
+
+        HttpResponse<byte[]> response = httpClient.send(request("/assignments").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        checkStatus(response);
+        return objectMapper.readValue(response.body(), ASSIGNMENTS_TYPE);
+    }
+
+    public void pushResults(List<AgentProbeResult> results) throws IOException, InterruptedException {
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            objectMapper.writeValue(gzip, results);
+        }
+
+        HttpResponse<byte[]> response = httpClient.send(request("/results")
+                        .header("Content-Type", "application/json")
+                        .header("Content-Encoding", "gzip")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        checkStatus(response);
+    }
+
+    private HttpRequest.Builder request(String path) {
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(schedulerUrl + "/server-status/agents/"
+                        + URLEncoder.encode(agentId, StandardCharsets.UTF_8) + path))
+                .timeout(Duration.ofMillis(requestTimeout));
+        if (!token.isEmpty()) {
+            builder.header(AGENT_TOKEN, token);
+        }
+        return builder;
+    }
+
+    private static void checkStatus(HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("scheduler_service responded " + response.statusCode()
+                    + ": " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+    }
+}
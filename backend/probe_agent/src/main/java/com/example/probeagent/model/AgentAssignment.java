@@ -0,0 +1,18 @@
+package com.example.probeagent.model;
+
+import java.util.UUID;
+
+/**
+ * Сервер, который агент должен проверять: как AgentAssignmentResponse в scheduler_service.
+ * probeInterval - в секундах, timeout - в миллисекундах.
+ */
+public record AgentAssignment(
+        UUID serverId,
+        String serverUrl,
+        String serverName,
+        ProbeType probeType,
+        Integer probePort,
+        int probeInterval,
+        int timeout
+) {
+}
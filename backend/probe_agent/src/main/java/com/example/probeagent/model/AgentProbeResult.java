@@ -0,0 +1,23 @@
+package com.example.probeagent.model;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+/**
+ * Результат проверки для scheduler_service: как AgentProbeResultRequest.
+ * Время фаз - в наносекундах, задержка - в микросекундах, время проверки - epoch millis.
+ */
+public record AgentProbeResult(
+        UUID serverId,
+        ServerStatus serverStatus,
+        Integer responseCode,
+        Long latencyMicros,
+        Long dnsNanos,
+        Long connectNanos,
+        Long probedAtMillis
+) {
+    @Builder
+    public AgentProbeResult {
+    }
+}
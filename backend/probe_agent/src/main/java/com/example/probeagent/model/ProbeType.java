@@ -0,0 +1,6 @@
+package com.example.probeagent.model;
+
+public enum ProbeType {
+    PING_HTTPS,
+    TCP
+}
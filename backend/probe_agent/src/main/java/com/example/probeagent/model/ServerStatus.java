@@ -0,0 +1,7 @@
+package com.example.probeagent.model;
+
+public enum ServerStatus {
+    ONLINE,
+    OFFLINE,
+    CONNECT_ERROR
+}
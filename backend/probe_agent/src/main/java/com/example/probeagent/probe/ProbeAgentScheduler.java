@@ -0,0 +1,204 @@
+package com.example.probeagent.probe;
+
+
+import com.example.probeagent.client.SchedulerClient;
+import com.example.probeagent.model.AgentAssignment;
+import com.example.probeagent.model.AgentProbeResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Расписание агента: периодически забирает свои серверы у scheduler_service и проверяет каждый
+ * со своим интервалом. Первая проверка сервера сдвинута внутри интервала по serverId, чтобы серверы
+ * не срабатывали одновременно. Результаты копятся и уходят пачками по batch.size или раз в batch.flushMillis;
+ * пока scheduler_service недоступен, пачки остаются в буфере (не больше batch.maxBuffered).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProbeAgentScheduler {
+
+    private final SchedulerClient schedulerClient;
+    private final ServerProber serverProber;
+
+    @Value("${agent.probe.threads:64}")
+    private int probeThreads;
+
+    @Value("${agent.batch.size:500}")
+    private int batchSize;
+
+    @Value("${agent.batch.maxBuffered:50000}")
+    private int maxBuffered;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "agent-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "agent-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ExecutorService probeExecutor;
+
+    private final Map<UUID, ScheduledProbe> scheduled = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<AgentProbeResult> results = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private record ScheduledProbe(AgentAssignment assignment, ScheduledFuture<?> future) {
+    }
+
+    @PostConstruct
+    public void init() {
+        probeExecutor = Executors.newFixedThreadPool(probeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "agent-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        probeExecutor.shutdownNow();
+        flushExecutor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${agent.assignmentRefreshMillis:10000}")
+    public void refreshAssignments() {
+
+        List<AgentAssignment> assignments;
+        try {
+            assignments = schedulerClient.fetchAssignments();
+        } catch (IOException e) {
+            // Без связи продолжаем проверять прежние серверы
+            log.warn("Failed to fetch assignments: {}", e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Set<UUID> assigned = new HashSet<>();
+        for (AgentAssignment assignment : assignments) {
+            assigned.add(assignment.serverId());
+            ScheduledProbe current = scheduled.get(assignment.serverId());
+            if (current != null && current.assignment().equals(assignment)) {
+                continue;
+            }
+            if (current != null) {
+                current.future().cancel(false);
+            }
+            scheduled.put(assignment.serverId(), schedule(assignment));
+        }
+
+        scheduled.entrySet().removeIf(entry -> {
+            if (assigned.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().future().cancel(false);
+            return true;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${agent.batch.flushMillis:1000}")
+    public void flush() {
+        flushExecutor.execute(this::pushBuffered);
+    }
+
+    private ScheduledProbe schedule(AgentAssignment assignment) {
+
+        long intervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, assignment.probeInterval()));
+        long initialDelay = Math.floorMod(assignment.serverId().hashCode(), intervalMillis);
+        AtomicBoolean running = new AtomicBoolean();
+
+        ScheduledFuture<?> future = timer.scheduleAtFixedRate(() -> {
+            // Предыдущая проверка сервера ещё идёт - эту пропускаем
+            if (running.compareAndSet(false, true)) {
+                probeExecutor.execute(() -> {
+                    try {
+                        collect(serverProber.probe(assignment));
+                    } catch (RuntimeException e) {
+                        log.error("Probe of {} failed: {}", assignment.serverUrl(), e.getMessage(), e);
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            }
+        }, initialDelay, intervalMillis, TimeUnit.MILLISECONDS);
+
+        return new ScheduledProbe(assignment, future);
+    }
+
+    private void collect(AgentProbeResult result) {
+
+        results.add(result);
+        int size = buffered.incrementAndGet();
+
+        // Переполнение - отбрасываем самые старые
+        while (size > maxBuffered && results.poll() != null) {
+            size = buffered.decrementAndGet();
+        }
+        if (size % batchSize == 0) {
+            flushExecutor.execute(this::pushBuffered);
+        }
+    }
+
+    private void pushBuffered() {
+
+        while (!results.isEmpty()) {
+
+            List<AgentProbeResult> batch = new ArrayList<>(batchSize);
+            AgentProbeResult result;
+            while (batch.size() < batchSize && (result = results.poll()) != null) {
+                batch.add(result);
+            }
+            buffered.addAndGet(-batch.size());
+
+            try {
+                schedulerClient.pushResults(batch);
+            } catch (IOException e) {
+                log.warn("Failed to push {} results, will retry: {}", batch.size(), e.getMessage());
+                requeue(batch);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requeue(batch);
+                return;
+            }
+        }
+    }
+
+    // Пачка возвращается в буфер и уйдёт со следующей попыткой (порядок внутри буфера не важен)
+    private void requeue(List<AgentProbeResult> batch) {
+        results.addAll(batch);
+        buffered.addAndGet(batch.size());
+    }
+}
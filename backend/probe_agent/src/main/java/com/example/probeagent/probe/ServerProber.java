@@ -0,0 +1,115 @@
+package com.example.probeagent.probe;
+
+
+import com.example.probeagent.model.AgentAssignment;
+import com.example.probeagent.model.AgentProbeResult;
+import com.example.probeagent.model.ProbeType;
+import com.example.probeagent.model.ServerStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Та же проверка, что и в scheduler_service: соединение на 443 порт (для TCP - на probePort),
+ * не удалось соединиться - OFFLINE, затем HTTPS запрос (HEAD, при 405/501 - GET) для кода ответа и задержки.
+ * Соединение принято, но запрос не прошёл - тоже OFFLINE, как в scheduler_service.
+ * Не удалось разрешить имя или другая ошибка - CONNECT_ERROR.
+ */
+@Slf4j
+@Component
+public class ServerProber {
+
+    private static final int HTTPS_PORT = 443;
+
+    private static final String PATH = "https://";
+
+    @Value("${agent.probe.method:HEAD}")
+    private String method;
+
+    @Value("${agent.probe.readTimeoutFactor:10}")
+    private int readTimeoutFactor;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    public AgentProbeResult probe(AgentAssignment assignment) {
+
+        // Время проверки уходит вместе с результатом: пачка может отправиться намного позже
+        AgentProbeResult.AgentProbeResultBuilder result = AgentProbeResult.builder()
+                .serverId(assignment.serverId())
+                .probedAtMillis(System.currentTimeMillis());
+
+        long dnsStart = System.nanoTime();
+        InetAddress address;
+        try {
+            address = InetAddress.getByName(assignment.serverUrl());
+        } catch (UnknownHostException e) {
+            log.warn("Failed to resolve host {}", assignment.serverUrl());
+            return result.serverStatus(ServerStatus.CONNECT_ERROR).build();
+        }
+        result.dnsNanos(System.nanoTime() - dnsStart);
+
+        boolean tcp = assignment.probeType() == ProbeType.TCP;
+        int port = tcp && assignment.probePort() != null ? assignment.probePort() : HTTPS_PORT;
+
+        long connectNanos;
+        try (Socket socket = new Socket()) {
+            long connectStart = System.nanoTime();
+            socket.connect(new InetSocketAddress(address, port), assignment.timeout());
+            connectNanos = System.nanoTime() - connectStart;
+        } catch (ConnectException | NoRouteToHostException | SocketTimeoutException e) {
+            log.info("{} OFFLINE !!!!", assignment.serverUrl());
+            return result.serverStatus(ServerStatus.OFFLINE).build();
+        } catch (IOException e) {
+            log.warn("Error while connecting to {}:{}: {}", assignment.serverUrl(), port, e.getMessage());
+            return result.serverStatus(ServerStatus.CONNECT_ERROR).build();
+        }
+        result.serverStatus(ServerStatus.ONLINE).connectNanos(connectNanos);
+
+        if (tcp) {
+            return result.latencyMicros(TimeUnit.NANOSECONDS.toMicros(connectNanos)).build();
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            HttpResponse<Void> response = send(assignment, method);
+            if (!"GET".equalsIgnoreCase(method) && (response.statusCode() == 405 || response.statusCode() == 501)) {
+                response = send(assignment, "GET");
+            }
+            result.responseCode(response.statusCode());
+        } catch (IOException e) {
+            log.warn("Ошибка подключения к серверу {}: {}", assignment.serverUrl(), e.getMessage());
+            result.serverStatus(ServerStatus.OFFLINE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.serverStatus(ServerStatus.CONNECT_ERROR);
+        }
+
+        return result.latencyMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime)).build();
+    }
+
+    private HttpResponse<Void> send(AgentAssignment assignment, String requestMethod) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(PATH + assignment.serverUrl()))
+                        .method(requestMethod.toUpperCase(), HttpRequest.BodyPublishers.noBody())
+                        .timeout(Duration.ofMillis((long) assignment.timeout() * readTimeoutFactor))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.schedulerservice.controller;
+
+
+import com.example.schedulerservice.handler.ErrorResponse;
+import com.example.schedulerservice.model.dto.response.AgentAssignmentResponse;
+import com.example.schedulerservice.model.dto.response.SimpleMessageResponse;
+import com.example.schedulerservice.service.ProbeAgentService;
+import com.example.schedulerservice.utils.ProbeAgentRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/server-status/agents")
+public class ProbeAgentController {
+
+    private static final String AGENT_TOKEN = "X-Agent-Token";
+
+    private final ProbeAgentService probeAgentService;
+    private final ProbeAgentRegistry probeAgentRegistry;
+
+    //  Живые агенты проверок
+    @Operation(summary = "Get live probe agents", tags = "agents",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = String.class)))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping
+    public ResponseEntity<List<String>> getAgents() {
+
+        return ResponseEntity.ok(probeAgentRegistry.liveAgents());
+    }
+
+    //  Серверы агента; запрос заодно отмечает агента живым
+    @Operation(summary = "Get servers assigned to a probe agent", tags = "agents",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = AgentAssignmentResponse.class)))),
+                    @ApiResponse(responseCode = "403", description = "Invalid agent token",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/{agent-id}/assignments")
+    public ResponseEntity<List<AgentAssignmentResponse>> getAssignments(@PathVariable("agent-id") String agentId,
+                                                                        @RequestHeader(value = AGENT_TOKEN, required = false) String agentToken) {
+
+        return ResponseEntity.ok(probeAgentService.getAssignments(agentId, agentToken));
+    }
+
+    //  Пачка результатов агента (JSON, можно gzip) - дальше как результаты обычного раунда
+    @Operation(summary = "Ingest a batch of probe agent results", tags = "agents",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SimpleMessageResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Malformed batch",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "403", description = "Invalid agent token",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "503", description = "Not the scheduler leader, retry",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @PostMapping("/{agent-id}/results")
+    public ResponseEntity<SimpleMessageResponse> ingestResults(@PathVariable("agent-id") String agentId,
+                                                               @RequestHeader(value = AGENT_TOKEN, required = false) String agentToken,
+                                                               @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                               @RequestBody byte[] body) {
+
+        return ResponseEntity.ok(probeAgentService.ingestResults(agentId, agentToken, contentEncoding, body));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.schedulerservice.controller;
+
+
+import com.example.schedulerservice.handler.ErrorResponse;
+import com.example.schedulerservice.model.dto.response.ConcurrencyLimitStatsResponse;
+import com.example.schedulerservice.model.dto.response.DnsCacheStatsResponse;
+import com.example.schedulerservice.model.dto.response.ProbeExecutorStatsResponse;
+import com.example.schedulerservice.model.dto.response.RoundStatsResponse;
+import com.example.schedulerservice.model.dto.response.ShardStatsResponse;
+import com.example.schedulerservice.utils.AdaptiveConcurrencyLimiter;
+import com.example.schedulerservice.utils.DnsResolverCache;
+import com.example.schedulerservice.utils.FleetShardSelector;
+import com.example.schedulerservice.utils.ProbeExecutor;
+import com.example.schedulerservice.utils.RoundMetrics;
+import com.example.schedulerservice.utils.ScheduledTasks;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/server-status/probe")
+public class ProbeController {
+
+    private final ProbeExecutor probeExecutor;
+    private final DnsResolverCache dnsResolverCache;
+    private final RoundMetrics roundMetrics;
+    private final FleetShardSelector fleetShardSelector;
+    private final ScheduledTasks scheduledTasks;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+    //  Состояние пула проверок: активные потоки и глубина очереди
+    @Operation(summary = "Get probe executor stats", tags = "probe",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ProbeExecutorStatsResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/executor-stats")
+    public ResponseEntity<ProbeExecutorStatsResponse> getExecutorStats() {
+
+        return ResponseEntity.ok(probeExecutor.getStats());
+    }
+
+    //  Состояние кэша DNS
+    @Operation(summary = "Get DNS cache stats", tags = "probe",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = DnsCacheStatsResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/dns-stats")
+    public ResponseEntity<DnsCacheStatsResponse> getDnsStats() {
+
+        return ResponseEntity.ok(dnsResolverCache.getStats());
+    }
+
+    //  Раунды проверок по каждому расписанию: упёршиеся в дедлайн и отменённые проверки, пропущенные тики, lag и drift
+    @Operation(summary = "Get probe round stats", tags = "probe",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = RoundStatsResponse.class)))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/round-stats")
+    public ResponseEntity<List<RoundStatsResponse>> getRoundStats() {
+
+        return ResponseEntity.ok(roundMetrics.getStats());
+    }
+
+    //  Какие экземпляры делят серверы и сколько серверов проверяет этот экземпляр
+    @Operation(summary = "Get probe shard stats", tags = "probe",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ShardStatsResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/shard-stats")
+    public ResponseEntity<ShardStatsResponse> getShardStats() {
+
+        return ResponseEntity.ok(ShardStatsResponse.builder()
+                .instanceId(fleetShardSelector.getInstanceId())
+                .members(fleetShardSelector.getMembers())
+                .ownedServers(scheduledTasks.getFleet().size())
+                .build());
+    }
+
+    //  AIMD-предел одновременных проверок: текущее значение, очередь и причина последнего снижения
+    @Operation(summary = "Get adaptive probe concurrency limit", tags = "probe",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ConcurrencyLimitStatsResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/concurrency-stats")
+    public ResponseEntity<ConcurrencyLimitStatsResponse> getConcurrencyStats() {
+
+        return ResponseEntity.ok(adaptiveConcurrencyLimiter.getStats());
+    }
+}
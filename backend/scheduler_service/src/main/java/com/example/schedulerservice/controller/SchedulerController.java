@@ -2,8 +2,10 @@ package com.example.schedulerservice.controller;
 
 
 import com.example.schedulerservice.handler.ErrorResponse;
+import com.example.schedulerservice.model.dto.response.LeaderStatusResponse;
 import com.example.schedulerservice.model.dto.response.SimpleMessageResponse;
 import com.example.schedulerservice.utils.ScheduledTasks;
+import com.example.schedulerservice.utils.SchedulerLeaderElection;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 public class SchedulerController {
 
     private final ScheduledTasks scheduledTasks;
+    private final SchedulerLeaderElection leaderElection;
 
     //  Получить статус проверки вкл/выкл
     @Operation(summary = "Get scheduler Status ", tags = "scheduler",
@@ -200,4 +203,20 @@ public class SchedulerController {
 
         return ResponseEntity.ok(new SimpleMessageResponse(("Timeout changed to: " + newTimeout + " nanoOfSecond.")));
     }
+
+    //  Какой экземпляр сейчас лидер и запускает общий раунд
+    @Operation(summary = "Get scheduler leader", tags = "scheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = LeaderStatusResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/leader")
+    public ResponseEntity<LeaderStatusResponse> getLeader() {
+
+        return ResponseEntity.ok(leaderElection.getStatus());
+    }
 }
@@ -12,6 +12,7 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,7 +43,7 @@ public class ServerController {
                                     schema = @Schema(implementation = ErrorResponse.class)))
             })
     @PostMapping("/add")
-    public ResponseEntity<SimpleMessageResponse> addNewServers(@RequestBody CreateNewServerDtoList createNewServerDtoList) {
+    public ResponseEntity<SimpleMessageResponse> addNewServers(@RequestBody @Valid CreateNewServerDtoList createNewServerDtoList) {
 
         return ResponseEntity.ok(serverService.addNewServersIntoDB(createNewServerDtoList));
     }
@@ -108,7 +109,7 @@ public class ServerController {
             })
     @PutMapping("/update/{server-id}")
     public ResponseEntity<ServerStatusResponse> updateServer(@PathVariable("server-id") UUID serverId,
-                                                             @RequestBody CreateNewServerRequest updateServer) {
+                                                             @RequestBody @Valid CreateNewServerRequest updateServer) {
 
         return ResponseEntity.ok(serverService.updateServer(serverId, updateServer));
     }
@@ -2,25 +2,35 @@ package com.example.schedulerservice.controller;
 
 
 import com.example.schedulerservice.handler.ErrorResponse;
+import com.example.schedulerservice.model.dto.request.CreateSingleScheduleGroupRequest;
 import com.example.schedulerservice.model.dto.request.CreateSingleServerRequest;
+import com.example.schedulerservice.model.dto.response.LeaderStatusResponse;
 import com.example.schedulerservice.model.dto.response.SimpleMessageResponse;
+import com.example.schedulerservice.model.dto.response.SingleScheduleGroupResponse;
+import com.example.schedulerservice.model.entity.Server;
 import com.example.schedulerservice.utils.ScheduledSingleTasks;
+import com.example.schedulerservice.utils.SchedulerLeaderElection;
+import com.example.schedulerservice.utils.SingleScheduleGroup;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/server-status/singleScheduler")
 public class SingleSchedulerController {
 
     private final ScheduledSingleTasks scheduledSingleTask;
+    private final SchedulerLeaderElection leaderElection;
 
     //  Получить статус проверки вкл/выкл
     @Operation(summary = "Get scheduler Status for single server", tags = "singleScheduler",
@@ -220,4 +230,201 @@ public class SingleSchedulerController {
 
         return ResponseEntity.ok(new SimpleMessageResponse(("Timeout changed to: " + newTimeout + " nanoOfSecond.")));
     }
+
+    //  Все группы отдельных расписаний
+    @Operation(summary = "Get single schedule groups", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    array = @ArraySchema(schema = @Schema(implementation = SingleScheduleGroupResponse.class)))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/groups")
+    public ResponseEntity<List<SingleScheduleGroupResponse>> getGroups() {
+
+        return ResponseEntity.ok(scheduledSingleTask.getGroups().stream()
+                .map(SingleSchedulerController::toResponse)
+                .toList());
+    }
+
+    //  Группа по имени
+    @Operation(summary = "Get single schedule group", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SingleScheduleGroupResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/groups/{name}")
+    public ResponseEntity<SingleScheduleGroupResponse> getGroup(@PathVariable("name") String name) {
+
+        return ResponseEntity.ok(toResponse(scheduledSingleTask.getGroup(name)));
+    }
+
+    //  Создать группу или заменить существующую: серверы, период (сек), таймаут, вкл/выкл, оповещения
+    @Operation(summary = "Create or replace single schedule group", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SingleScheduleGroupResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad request",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @PutMapping("/groups/{name}")
+    public ResponseEntity<SingleScheduleGroupResponse> putGroup(@PathVariable("name") String name,
+                                                                @RequestBody @Valid CreateSingleScheduleGroupRequest request) {
+
+        return ResponseEntity.ok(toResponse(scheduledSingleTask.putGroup(name, request.items(), request.fixedRate(),
+                request.timeout(), request.enabled(), request.notification())));
+    }
+
+    //  Удалить группу
+    @Operation(summary = "Delete single schedule group", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SimpleMessageResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "409", description = "Default group can not be removed",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @DeleteMapping("/groups/{name}")
+    public ResponseEntity<SimpleMessageResponse> deleteGroup(@PathVariable("name") String name) {
+
+        scheduledSingleTask.removeGroup(name);
+
+        return ResponseEntity.ok(new SimpleMessageResponse("Schedule group " + name + " removed"));
+    }
+
+    //  Включить/выключить группу
+    @Operation(summary = "Get on single schedule group", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SimpleMessageResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @PostMapping("/groups/{name}/on")
+    public ResponseEntity<SimpleMessageResponse> groupOn(@PathVariable("name") String name) {
+
+        scheduledSingleTask.setEnabled(name, true);
+
+        return ResponseEntity.ok(new SimpleMessageResponse("Schedule group " + name + " is now ON"));
+    }
+
+    @Operation(summary = "Get off single schedule group", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SimpleMessageResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @PostMapping("/groups/{name}/off")
+    public ResponseEntity<SimpleMessageResponse> groupOff(@PathVariable("name") String name) {
+
+        scheduledSingleTask.setEnabled(name, false);
+
+        return ResponseEntity.ok(new SimpleMessageResponse("Schedule group " + name + " is now OFF"));
+    }
+
+    //  Оповещения группы
+    @Operation(summary = "Get on single schedule group notification", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SimpleMessageResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @PostMapping("/groups/{name}/notification/on")
+    public ResponseEntity<SimpleMessageResponse> groupNotificationOn(@PathVariable("name") String name) {
+
+        scheduledSingleTask.setNotification(name, true);
+
+        return ResponseEntity.ok(new SimpleMessageResponse("Schedule group " + name + " notification is now ON"));
+    }
+
+    @Operation(summary = "Get off single schedule group notification", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SimpleMessageResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "Not found",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @PostMapping("/groups/{name}/notification/off")
+    public ResponseEntity<SimpleMessageResponse> groupNotificationOff(@PathVariable("name") String name) {
+
+        scheduledSingleTask.setNotification(name, false);
+
+        return ResponseEntity.ok(new SimpleMessageResponse("Schedule group " + name + " notification is now OFF"));
+    }
+
+    private static SingleScheduleGroupResponse toResponse(SingleScheduleGroup group) {
+        return SingleScheduleGroupResponse.builder()
+                .name(group.getName())
+                .serverIds(group.getServers().stream().map(Server::getServerId).toList())
+                .fixedRate(group.getFixedRate().get())
+                .timeout(group.getTimeout())
+                .enabled(group.isEnabled())
+                .notification(group.isNotification())
+                .build();
+    }
+
+    //  Какой экземпляр сейчас лидер и запускает отдельные расписания
+    @Operation(summary = "Get scheduler leader", tags = "singleScheduler",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = LeaderStatusResponse.class))),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)))
+            })
+    @GetMapping("/leader")
+    public ResponseEntity<LeaderStatusResponse> getLeader() {
+
+        return ResponseEntity.ok(leaderElection.getStatus());
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.schedulerservice.exeption;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ProbeAgentRequestException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public ProbeAgentRequestException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -3,7 +3,9 @@ package com.example.schedulerservice.handler;
 
 
 import com.example.schedulerservice.exeption.DuplicatedServerHostException;
+import com.example.schedulerservice.exeption.ProbeAgentRequestException;
 import com.example.schedulerservice.exeption.ResourceNotFoundException;
+import com.example.schedulerservice.exeption.ScheduleGroupException;
 import com.example.schedulerservice.exeption.StorageDataNotFoundException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +54,16 @@ public class ControllerExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorResponse(ex.getMessage()));
     }
 
+    @ExceptionHandler(ProbeAgentRequestException.class)
+    protected ResponseEntity<ErrorResponse> handleProbeAgentRequestException(@NonNull ProbeAgentRequestException ex) {
+        return ResponseEntity.status(ex.getStatus()).body(new ErrorResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ScheduleGroupException.class)
+    protected ResponseEntity<ErrorResponse> handleScheduleGroupException(@NonNull ScheduleGroupException ex) {
+        return ResponseEntity.status(ex.getStatus()).body(new ErrorResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     protected ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException
             (@NonNull MethodArgumentTypeMismatchException exception) {
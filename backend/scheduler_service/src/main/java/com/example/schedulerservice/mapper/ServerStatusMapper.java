@@ -24,6 +24,10 @@ public interface ServerStatusMapper {
     @Mapping(target = "localDateTime", source = "localDateTime")
     ServerStatusLog serverStatusResponseToServerStatusLog(ServerStatusResponse serverStatusResponse, LocalDateTime localDateTime);
 
+    // Время записи в лог - время самой проверки
+    @Mapping(target = "localDateTime", source = "probedAt")
+    ServerStatusLog probedServerStatusResponseToServerStatusLog(ServerStatusResponse serverStatusResponse);
+
 
     List<ServerStatusLog> serverStatusResponseListToServerStatusLogList (List<ServerStatusResponse> serverStatusResponses);
 }
@@ -0,0 +1,6 @@
+package com.example.schedulerservice.model.constant;
+
+public enum ProbeType {
+    PING_HTTPS,
+    TCP
+}
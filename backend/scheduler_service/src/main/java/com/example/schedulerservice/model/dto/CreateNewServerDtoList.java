@@ -2,12 +2,13 @@ package com.example.schedulerservice.model.dto;
 
 
 import com.example.schedulerservice.model.dto.request.CreateNewServerRequest;
+import jakarta.validation.Valid;
 import lombok.Builder;
 
 import java.util.List;
 
 
-public record CreateNewServerDtoList(List<CreateNewServerRequest> items) {
+public record CreateNewServerDtoList(List<@Valid CreateNewServerRequest> items) {
     @Builder
     public CreateNewServerDtoList {
     }
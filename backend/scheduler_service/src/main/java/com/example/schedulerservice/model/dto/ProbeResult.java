@@ -0,0 +1,27 @@
+package com.example.schedulerservice.model.dto;
+
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+
+/**
+ * Результат одной HTTP проверки без промежуточных строк и map: код ответа (NO_CODE - ответа нет),
+ * задержка в микросекундах, статус (ordinal ServerStatus) и время проверки в epoch millis.
+ */
+public record ProbeResult(int code, long latencyMicros, int status, long probedAtMillis) {
+
+    public static final int NO_CODE = -1;
+
+    private static final ServerStatus[] STATUSES = ServerStatus.values();
+
+    public static ProbeResult of(int code, long latencyMicros, ServerStatus status) {
+        return new ProbeResult(code, latencyMicros, status.ordinal(), System.currentTimeMillis());
+    }
+
+    public boolean hasCode() {
+        return code != NO_CODE;
+    }
+
+    public ServerStatus serverStatus() {
+        return STATUSES[status];
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.schedulerservice.model.dto.request;
+
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import lombok.Builder;
+
+import java.util.UUID;
+
+/**
+ * Результат одной проверки, выполненной агентом. Время фаз - в наносекундах, задержка - в микросекундах,
+ * время проверки - epoch millis на агенте (null - время приёма).
+ */
+public record AgentProbeResultRequest(
+        UUID serverId,
+        ServerStatus serverStatus,
+        Integer responseCode,
+        Long latencyMicros,
+        Long dnsNanos,
+        Long connectNanos,
+        Long probedAtMillis
+) {
+    @Builder
+    public AgentProbeResultRequest {
+    }
+}
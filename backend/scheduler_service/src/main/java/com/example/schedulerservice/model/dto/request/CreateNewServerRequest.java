@@ -1,14 +1,36 @@
 package com.example.schedulerservice.model.dto.request;
 
+import com.example.schedulerservice.model.constant.ProbeType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import lombok.Builder;
 
 public record CreateNewServerRequest(
         String serverUrl,
-        String serverName
+        String serverName,
+        ProbeType probeType,
+        @Min(value = 1, message = "{validation.probePort.message}")
+        @Max(value = 65535, message = "{validation.probePort.message}")
+        Integer probePort,
+        @Positive(message = "{validation.probeInterval.message}")
+        Integer probeInterval,
+        @Positive(message = "{validation.hostMaxConcurrent.message}")
+        Integer hostMaxConcurrent,
+        @Positive(message = "{validation.hostRatePerSecond.message}")
+        Double hostRatePerSecond
 ) {
     @Builder
     public CreateNewServerRequest {
     }
+
+    @JsonIgnore
+    @AssertTrue(message = "{validation.probePortTcp.message}")
+    public boolean isProbePortSetForTcp() {
+        return probeType != ProbeType.TCP || probePort != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.schedulerservice.model.dto.request;
+
+
+import com.example.schedulerservice.model.entity.Server;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+
+import java.util.List;
+
+
+public record CreateSingleScheduleGroupRequest(
+        List<Server> items,
+        @Positive(message = "{validation.groupFixedRate.message}")
+        Integer fixedRate,
+        @Positive(message = "{validation.groupTimeout.message}")
+        Integer timeout,
+        Boolean enabled,
+        Boolean notification
+) {
+    @Builder
+    public CreateSingleScheduleGroupRequest {
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.schedulerservice.model.dto.response;
+
+import com.example.schedulerservice.model.constant.ProbeType;
+import lombok.Builder;
+
+import java.util.UUID;
+
+public record AgentAssignmentResponse(
+        UUID serverId,
+
+        String serverUrl,
+
+        String serverName,
+
+        ProbeType probeType,
+
+        Integer probePort,
+
+        // Интервал проверки в секундах
+        int probeInterval,
+
+        // Таймаут проверки, мс
+        int timeout
+) {
+
+    @Builder
+    public AgentAssignmentResponse {
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+public record ConcurrencyLimitStatsResponse(
+        boolean enabled,
+
+        // Текущий предел одновременных проверок
+        int limit,
+
+        int inFlight,
+
+        int queued,
+
+        long decreases,
+
+        String lastDecreaseReason,
+
+        // -1 - JVM не сообщает число открытых дескрипторов
+        long openFileDescriptors,
+
+        long maxFileDescriptors
+) {
+
+    @Builder
+    public ConcurrencyLimitStatsResponse {
+    }
+}
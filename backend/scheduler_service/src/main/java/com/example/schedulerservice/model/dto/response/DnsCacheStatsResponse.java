@@ -0,0 +1,20 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+public record DnsCacheStatsResponse(
+        int size,
+
+        int inFlight,
+
+        long hits,
+
+        long misses,
+
+        long negativeHits
+) {
+
+    @Builder
+    public DnsCacheStatsResponse {
+    }
+}
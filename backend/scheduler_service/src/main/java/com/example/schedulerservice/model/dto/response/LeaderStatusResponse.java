@@ -0,0 +1,20 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+public record LeaderStatusResponse(
+        boolean enabled,
+
+        String instanceId,
+
+        boolean leader,
+
+        String leaderInstanceId,
+
+        Long fencingToken
+) {
+
+    @Builder
+    public LeaderStatusResponse {
+    }
+}
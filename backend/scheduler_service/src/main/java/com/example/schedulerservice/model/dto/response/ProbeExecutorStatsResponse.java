@@ -0,0 +1,27 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+public record ProbeExecutorStatsResponse(
+        String mode,
+
+        int concurrency,
+
+        int activeCount,
+
+        int poolSize,
+
+        int queueDepth,
+
+        int queueCapacity,
+
+        long completedTasks,
+
+        // Отклонено из-за переполнения - такие проверки раунда получают CONNECT_ERROR
+        long rejectedTasks
+) {
+
+    @Builder
+    public ProbeExecutorStatsResponse {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+public record RoundStatsResponse(
+        // Имя расписания: scheduledTasks - общий раунд, scheduledSingleTasks:имя - группа отдельных серверов
+        String scheduler,
+
+        long rounds,
+
+        long overruns,
+
+        long cancelledProbes,
+
+        long lastRoundMillis,
+
+        long maxRoundMillis,
+
+        long skippedTicks,
+
+        long coalescedTicks,
+
+        long lastLagMillis,
+
+        long maxLagMillis,
+
+        long lastDriftMillis,
+
+        long maxDriftMillis
+) {
+
+    @Builder
+    public RoundStatsResponse {
+    }
+}
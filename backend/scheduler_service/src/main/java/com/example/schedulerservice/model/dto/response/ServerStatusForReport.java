@@ -16,9 +16,17 @@ public record ServerStatusForReport(
 
         ServerStatus serverStatus,
 
-        String responseCode,
+        Integer responseCode,
 
-        String latency
+        Long latencyMicros,
+
+        Long dnsNanos,
+
+        Long connectNanos,
+
+        Long tlsNanos,
+
+        Long ttfbNanos
 
 ) {
     @Builder
@@ -1,13 +1,16 @@
 package com.example.schedulerservice.model.dto.response;
 
 
+import com.example.schedulerservice.model.constant.ProbeType;
 import com.example.schedulerservice.model.constant.ServerStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
 
-@Builder
+@Builder(toBuilder = true)
 @Setter
 @Getter
 @AllArgsConstructor
@@ -20,9 +23,40 @@ public class ServerStatusResponse {
 
     String serverName;
 
-    String responseCode;
+    ProbeType probeType;
 
-    String latency;
+    Integer probePort;
+
+    Integer probeInterval;
+
+    Integer responseCode;
+
+    // Задержка проверки, мкс
+    Long latencyMicros;
+
+    // Время фаз проверки, нс. DNS в latencyMicros не входит
+    Long dnsNanos;
+
+    Long connectNanos;
+
+    Long tlsNanos;
+
+    Long ttfbNanos;
+
+    // Когда выполнена проверка; у результатов агента - время на агенте, а не время приёма.
+    // null - время записи в лог
+    LocalDateTime probedAt;
+
+    // Сервер на паузе после серии неудач: результат - последний известный, следующая проверка в это время
+    LocalDateTime nextProbeAt;
+
+    // Откуда проверка: null - сам scheduler_service, local@адрес - с выделенного локального адреса, agent:id - удалённый агент.
+    // У итогового статуса кворума - источники, которые за него проголосовали
+    String source;
+
+    // Проверка упёрлась в свой таймаут соединения или запроса - сигнал для предела одновременных проверок, клиенту не отдаётся
+    @JsonIgnore
+    boolean timedOut;
 
     private volatile ServerStatus serverStatus;
 
@@ -0,0 +1,18 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+import java.util.List;
+
+public record ShardStatsResponse(
+        String instanceId,
+
+        List<String> members,
+
+        int ownedServers
+) {
+
+    @Builder
+    public ShardStatsResponse {
+    }
+}
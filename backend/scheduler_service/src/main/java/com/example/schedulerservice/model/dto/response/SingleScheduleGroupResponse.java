@@ -0,0 +1,25 @@
+package com.example.schedulerservice.model.dto.response;
+
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+public record SingleScheduleGroupResponse(
+        String name,
+
+        List<UUID> serverIds,
+
+        int fixedRate,
+
+        int timeout,
+
+        boolean enabled,
+
+        boolean notification
+) {
+
+    @Builder
+    public SingleScheduleGroupResponse {
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.schedulerservice.model.entity;
 
 
+import com.example.schedulerservice.model.constant.ProbeType;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -24,4 +25,32 @@ public class Server {
 
     @Column(name = "server_name", nullable = false)
     String serverName;
+
+    // PING_HTTPS - ping и HTTPS запрос, TCP - только соединение на probePort
+    @Column(name = "probe_type")
+    @Enumerated(EnumType.STRING)
+    ProbeType probeType;
+
+    @Column(name = "probe_port")
+    Integer probePort;
+
+    // Интервал проверки в секундах, null - общий интервал планировщика
+    @Column(name = "probe_interval")
+    Integer probeInterval;
+
+    // Лимиты проверок на адрес сервера, null - глобальные probe.hostLimit.*
+    @Column(name = "host_max_concurrent")
+    Integer hostMaxConcurrent;
+
+    @Column(name = "host_rate_per_second")
+    Double hostRatePerSecond;
+
+    // DEFAULT колонки не срабатывает: JPA явно вставляет NULL, поэтому тип по умолчанию ставится здесь
+    @PrePersist
+    @PreUpdate
+    void applyDefaultProbeType() {
+        if (probeType == null) {
+            probeType = ProbeType.PING_HTTPS;
+        }
+    }
 }
@@ -33,10 +33,22 @@ public class ServerStatusLog {
     LocalDateTime localDateTime;
 
     @Column(name = "response_code")
-    String responseCode;
+    Integer responseCode;
 
-    @Column(name = "latency")
-    String latency;
+    @Column(name = "latency_micros")
+    Long latencyMicros;
+
+    @Column(name = "dns_nanos")
+    Long dnsNanos;
+
+    @Column(name = "connect_nanos")
+    Long connectNanos;
+
+    @Column(name = "tls_nanos")
+    Long tlsNanos;
+
+    @Column(name = "ttfb_nanos")
+    Long ttfbNanos;
 
     @Column(name = "server_status")
     @Enumerated(EnumType.STRING)
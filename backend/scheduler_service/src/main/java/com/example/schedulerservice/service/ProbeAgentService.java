@@ -0,0 +1,15 @@
+package com.example.schedulerservice.service;
+
+import com.example.schedulerservice.model.dto.response.AgentAssignmentResponse;
+import com.example.schedulerservice.model.dto.response.SimpleMessageResponse;
+
+import java.util.List;
+
+public interface ProbeAgentService {
+
+    //  Серверы, которые должен проверять агент
+    List<AgentAssignmentResponse> getAssignments(String agentId, String agentToken);
+
+    //  Пачка результатов агента: тело - JSON массив, при Content-Encoding: gzip - сжатый
+    SimpleMessageResponse ingestResults(String agentId, String agentToken, String contentEncoding, byte[] body);
+}
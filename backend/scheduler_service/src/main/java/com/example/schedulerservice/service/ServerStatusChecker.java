@@ -4,16 +4,24 @@ package com.example.schedulerservice.service;
 import com.example.schedulerservice.model.dto.ServerStatusDtoList;
 import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
 import com.example.schedulerservice.model.entity.Server;
+import com.example.schedulerservice.utils.ServerAlert;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface ServerStatusChecker {
 
     ServerStatusDtoList getStatusForSingleServer(List<Server> serverIdList, int timeout);
 
+    ServerStatusDtoList getStatusForServerGroup(List<Server> servers, int timeout, ServerAlert groupAlert);
+
     ServerStatusDtoList allServersStatus(int timeout);
 
+    CompletableFuture<Void> streamServers(String scheduler, List<Server> servers, int timeout, long deadlineMillis,
+                                          Consumer<ServerStatusResponse> onResult);
+
     ServerStatusResponse serverHealthCheck(Server server, int timeout);
 }
@@ -0,0 +1,179 @@
+package com.example.schedulerservice.service.impl;
+
+
+import com.example.schedulerservice.config.UpdateConsumer;
+import com.example.schedulerservice.exeption.ProbeAgentRequestException;
+import com.example.schedulerservice.mapper.ServerStatusMapper;
+import com.example.schedulerservice.model.dto.request.AgentProbeResultRequest;
+import com.example.schedulerservice.model.dto.response.AgentAssignmentResponse;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.dto.response.SimpleMessageResponse;
+import com.example.schedulerservice.model.entity.Server;
+import com.example.schedulerservice.repository.ServerRepository;
+import com.example.schedulerservice.service.ProbeAgentService;
+import com.example.schedulerservice.utils.ProbeAgentRegistry;
+import com.example.schedulerservice.utils.ProbeResultPipeline;
+import com.example.schedulerservice.utils.ScheduledTasks;
+import com.example.schedulerservice.utils.SchedulerLeaderElection;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProbeAgentServiceImpl implements ProbeAgentService {
+
+    private final ProbeAgentRegistry probeAgentRegistry;
+    private final ServerRepository serverRepository;
+    private final ServerStatusMapper serverStatusMapper;
+    private final ProbeResultPipeline probeResultPipeline;
+    private final ScheduledTasks scheduledTasks;
+    private final SchedulerLeaderElection leaderElection;
+    private final UpdateConsumer updateConsumer;
+    private final ObjectMapper objectMapper;
+
+    // Ограничение на размер распакованной пачки, защита от gzip-бомбы
+    @Value("${probe.agents.maxBatchBytes:16777216}")
+    private int maxBatchBytes;
+
+    private static final TypeReference<List<AgentProbeResultRequest>> RESULTS_TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public List<AgentAssignmentResponse> getAssignments(String agentId, String agentToken) {
+
+        probeAgentRegistry.authorize(agentId, agentToken);
+        probeAgentRegistry.heartbeat(agentId);
+
+        Predicate<UUID> assigned = probeAgentRegistry.assignedTo(agentId);
+
+        List<AgentAssignmentResponse> assignments = new ArrayList<>();
+        for (Server server : serverRepository.findAll()) {
+            if (assigned.test(server.getServerId())) {
+                assignments.add(AgentAssignmentResponse.builder()
+                        .serverId(server.getServerId())
+                        .serverUrl(server.getServerUrl())
+                        .serverName(server.getServerName())
+                        .probeType(server.getProbeType())
+                        .probePort(server.getProbePort())
+                        .probeInterval(server.getProbeInterval() != null ? server.getProbeInterval() : scheduledTasks.getFixedRate().get())
+                        .timeout(scheduledTasks.getTimeout())
+                        .build());
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Результаты агента идут тем же путём, что и результаты раунда: запись в лог, WebSocket, оповещения.
+     * Результаты по неизвестным серверам и по серверам, не назначенным этому агенту, отбрасываются.
+     * Результаты принимает только лидер: состояние оповещений у каждой реплики своё, и на разных репликах
+     * одно падение давало бы дубли или терялось. Остальные реплики отвечают 503, агент оставляет пачку
+     * у себя и повторяет - через api_gateway повтор попадает на другую реплику.
+     */
+    @Override
+    public SimpleMessageResponse ingestResults(String agentId, String agentToken, String contentEncoding, byte[] body) {
+
+        probeAgentRegistry.authorize(agentId, agentToken);
+        probeAgentRegistry.heartbeat(agentId);
+
+        if (!leaderElection.isLeader()) {
+            throw new ProbeAgentRequestException(HttpStatus.SERVICE_UNAVAILABLE, "Not the scheduler leader, retry on another replica");
+        }
+
+        List<AgentProbeResultRequest> results = decode(contentEncoding, body);
+
+        Predicate<UUID> assigned = probeAgentRegistry.assignedTo(agentId);
+
+        Set<UUID> serverIds = new HashSet<>();
+        for (AgentProbeResultRequest result : results) {
+            if (result.serverId() != null && assigned.test(result.serverId())) {
+                serverIds.add(result.serverId());
+            }
+        }
+        Map<UUID, Server> servers = serverRepository.findAllById(serverIds).stream()
+                .collect(Collectors.toMap(Server::getServerId, Function.identity()));
+
+        ProbeResultPipeline.RoundStream roundStream = probeResultPipeline.openLeaderAlerting(serverAlertList -> {
+            if (scheduledTasks.isEnabledScheduleNotification()) {
+                updateConsumer.sendMessage(serverAlertList, scheduledTasks.getFixedRate(), scheduledTasks.getTimeout());
+            }
+        });
+
+        int accepted = 0;
+        try {
+            for (AgentProbeResultRequest result : results) {
+                Server server = result.serverId() != null ? servers.get(result.serverId()) : null;
+                if (server == null || result.serverStatus() == null) {
+                    continue;
+                }
+                roundStream.accept(toResponse(agentId, server, result));
+                accepted++;
+            }
+        } finally {
+            roundStream.close().join();
+        }
+
+        log.debug("Agent {}: {} of {} results accepted", agentId, accepted, results.size());
+        return new SimpleMessageResponse("Accepted " + accepted + " of " + results.size() + " results");
+    }
+
+    private ServerStatusResponse toResponse(String agentId, Server server, AgentProbeResultRequest result) {
+
+        ServerStatusResponse response = serverStatusMapper.serverToServerStatusResponse(server);
+        response.setServerStatus(result.serverStatus());
+        response.setResponseCode(result.responseCode());
+        response.setLatencyMicros(result.latencyMicros());
+        response.setDnsNanos(result.dnsNanos());
+        response.setConnectNanos(result.connectNanos());
+        response.setSource("agent:" + agentId);
+        // Время проверки на агенте, но не позже приёма: часы агента могут спешить
+        if (result.probedAtMillis() != null) {
+            long probedAtMillis = Math.min(result.probedAtMillis(), System.currentTimeMillis());
+            response.setProbedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(probedAtMillis), ZoneId.systemDefault()));
+        }
+        return response;
+    }
+
+    private List<AgentProbeResultRequest> decode(String contentEncoding, byte[] body) {
+
+        if (body == null || body.length == 0) {
+            return List.of();
+        }
+
+        try (InputStream in = "gzip".equalsIgnoreCase(contentEncoding)
+                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new ByteArrayInputStream(body)) {
+
+            byte[] json = in.readNBytes(maxBatchBytes + 1);
+            if (json.length > maxBatchBytes) {
+                throw new ProbeAgentRequestException(HttpStatus.PAYLOAD_TOO_LARGE, "Result batch exceeds " + maxBatchBytes + " bytes");
+            }
+            return objectMapper.readValue(json, RESULTS_TYPE);
+        } catch (IOException e) {
+            throw new ProbeAgentRequestException(HttpStatus.BAD_REQUEST, "Malformed result batch: " + e.getMessage());
+        }
+    }
+}
@@ -13,6 +13,7 @@ import com.example.schedulerservice.model.entity.Server;
 import com.example.schedulerservice.repository.ServerRepository;
 import com.example.schedulerservice.service.ServerService;
 import com.example.schedulerservice.service.ServerStatusChecker;
+import com.example.schedulerservice.utils.ProbeExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -32,6 +33,7 @@ public class ServerServiceImpl implements ServerService {
     private final ServerRepository serverRepository;
     private final ServerStatusMapper serverStatusMapper;
     private final ServerStatusChecker serverStatusChecker;
+    private final ProbeExecutor probeExecutor;
 
     @Override
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -44,6 +46,11 @@ public class ServerServiceImpl implements ServerService {
                     .map(serverDto -> Server.builder()
                             .serverUrl(serverDto.serverUrl())
                             .serverName(serverDto.serverName())
+                            .probeType(serverDto.probeType())
+                            .probePort(serverDto.probePort())
+                            .probeInterval(serverDto.probeInterval())
+                            .hostMaxConcurrent(serverDto.hostMaxConcurrent())
+                            .hostRatePerSecond(serverDto.hostRatePerSecond())
                             .build())
                     .toList();
 
@@ -64,7 +71,7 @@ public class ServerServiceImpl implements ServerService {
         Server server = serverRepository.findByServerUrl(serverUrl)
                 .orElseThrow(() -> new StorageDataNotFoundException("No one server with this Url " + serverUrl));
 
-        return serverStatusChecker.serverHealthCheck(server, timeout);
+        return probeExecutor.call(() -> serverStatusChecker.serverHealthCheck(server, timeout));
     }
 
     @Override
@@ -74,7 +81,7 @@ public class ServerServiceImpl implements ServerService {
         Server server = serverRepository.findByServerName(serverName)
                 .orElseThrow(() -> new StorageDataNotFoundException("No one server with this name " + serverName));
 
-        return serverStatusChecker.serverHealthCheck(server, timeout);
+        return probeExecutor.call(() -> serverStatusChecker.serverHealthCheck(server, timeout));
     }
 
     @Override
@@ -85,6 +92,11 @@ public class ServerServiceImpl implements ServerService {
 
         serverFromBD.setServerUrl(updateServer.serverUrl());
         serverFromBD.setServerName(updateServer.serverName());
+        serverFromBD.setProbeType(updateServer.probeType());
+        serverFromBD.setProbePort(updateServer.probePort());
+        serverFromBD.setProbeInterval(updateServer.probeInterval());
+        serverFromBD.setHostMaxConcurrent(updateServer.hostMaxConcurrent());
+        serverFromBD.setHostRatePerSecond(updateServer.hostRatePerSecond());
 
         serverRepository.save(serverFromBD);
 
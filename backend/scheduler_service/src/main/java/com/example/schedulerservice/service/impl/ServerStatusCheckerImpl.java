@@ -5,7 +5,9 @@ import com.example.schedulerservice.exeption.ErrorWhilePingingException;
 import com.example.schedulerservice.exeption.FailedToResolveHostException;
 import com.example.schedulerservice.exeption.StorageDataNotFoundException;
 import com.example.schedulerservice.mapper.ServerStatusMapper;
+import com.example.schedulerservice.model.constant.ProbeType;
 import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.ProbeResult;
 import com.example.schedulerservice.model.dto.ServerStatusDtoList;
 import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
 import com.example.schedulerservice.model.entity.Server;
@@ -13,7 +15,19 @@ import com.example.schedulerservice.model.entity.ServerStatusLog;
 import com.example.schedulerservice.repository.ServerRepository;
 import com.example.schedulerservice.repository.ServerRepositoryLog;
 import com.example.schedulerservice.service.ServerStatusChecker;
+import com.example.schedulerservice.utils.AdaptiveConcurrencyLimiter;
+import com.example.schedulerservice.utils.AdaptiveTimeoutTracker;
+import com.example.schedulerservice.utils.DnsResolverCache;
+import com.example.schedulerservice.utils.HostRateLimiter;
+import com.example.schedulerservice.utils.InFlightProbeRegistry;
+import com.example.schedulerservice.utils.NioProbeEngine;
+import com.example.schedulerservice.utils.ProbeCircuitBreaker;
+import com.example.schedulerservice.utils.ProbeExecutor;
+import com.example.schedulerservice.utils.ProbeFutures;
+import com.example.schedulerservice.utils.RoundMetrics;
 import com.example.schedulerservice.utils.ServerAlert;
+import com.example.schedulerservice.utils.ServerAvailabilityChecker;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -25,20 +39,31 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.net.InetAddress;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-import static com.example.schedulerservice.utils.ServerAvailabilityChecker.getResponseCodeAndLatency;
-
 @Slf4j
 @Service
 @Getter
@@ -50,14 +75,72 @@ public class ServerStatusCheckerImpl implements ServerStatusChecker {
     private final ServerRepository serverRepository;
     private final ServerRepositoryLog serverRepositoryLog;
     private final ServerAlert serverAlert;
+    private final NioProbeEngine nioProbeEngine;
+    private final ProbeExecutor probeExecutor;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final ServerAvailabilityChecker serverAvailabilityChecker;
+    private final DnsResolverCache dnsResolverCache;
+    private final AdaptiveTimeoutTracker adaptiveTimeoutTracker;
+    private final HostRateLimiter hostRateLimiter;
+    private final ProbeCircuitBreaker probeCircuitBreaker;
+    private final RoundMetrics roundMetrics;
+    private final InFlightProbeRegistry inFlightProbeRegistry;
 
     public ServerStatusDtoList serverStatusDtoList;
 
     @Value("${list.size.split}")
     public int size = 10;
 
+    // nio - неблокирующий движок проверок, blocking - isReachable + HTTP запрос в потоке пула
+    @Value("${probe.engine:nio}")
+    private String probeEngine;
+
+    // true - HTTPS проверка одним соединением с замером DNS / connect / TLS / TTFB.
+    // Такая проверка идёт мимо NIO движка и общего keep-alive клиента, поэтому по умолчанию выключена,
+    // а включённая делается только для каждой phaseTimingEvery-й проверки сервера
+    @Value("${probe.http.phaseTiming:false}")
+    private boolean phaseTiming;
+
+    @Value("${probe.http.phaseTimingEvery:10}")
+    private int phaseTimingEvery;
+
+    private final ConcurrentHashMap<UUID, AtomicLong> phaseTimingCounters = new ConcurrentHashMap<>();
+
+    // Сколько повторных проверок подтверждают OFFLINE, пауза между их запуском и чередование типа проверки
+    @Value("${probe.confirm.enabled:true}")
+    private boolean confirmEnabled;
+
+    @Value("${probe.confirm.attempts:2}")
+    private int confirmAttempts;
+
+    @Value("${probe.confirm.hedgeDelay:50}")
+    private long confirmHedgeDelay;
+
+    @Value("${probe.confirm.alternateType:true}")
+    private boolean confirmAlternateType;
+
     private static final String PATH = "https://";
 
+    private static final int HTTPS_PORT = 443;
+
+    // Проверка вне раунда: подтверждение OFFLINE ограничено только своим бюджетом
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Соединение не установлено за таймаут, в отличие от null - отказа в соединении
+    private static final long CONNECT_TIMED_OUT = -1;
+
+    // Дедлайны проверок раунда и запуск повторов подтверждения OFFLINE
+    private final ScheduledExecutorService probeTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-round-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        probeTimer.shutdownNow();
+    }
+
     public synchronized ServerStatusDtoList getServerStatusDtoList() {
         return serverStatusDtoList;
     }
@@ -90,6 +173,26 @@ public class ServerStatusCheckerImpl implements ServerStatusChecker {
         return new ServerStatusDtoList(serverStatusResponses, serverAlertList);
     }
 
+    /**
+     * Проверка группы отдельного расписания: без кэша, каждый раунд проверяет серверы заново.
+     * Оповещения считаются по состоянию самой группы, поэтому группы с общими серверами не сбивают друг другу оповещения.
+     * Серверы, удалённые из базы после настройки группы, пропускаются.
+     */
+    @Override
+    public ServerStatusDtoList getStatusForServerGroup(List<Server> servers, int timeout, ServerAlert groupAlert) {
+
+        List<Server> groupServers = serverRepository.findAllById(servers.stream()
+                .map(Server::getServerId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        List<ServerStatusResponse> serverStatusResponses = parallelProcess(List.of(groupServers), timeout);
+
+        List<ServerStatusLog> serverStatusLogs = serverStatusMapper.serverStatusResponseListToServerStatusLogList(serverStatusResponses);
+
+        return new ServerStatusDtoList(serverStatusResponses, groupAlert.notificationSendForProbed(serverStatusLogs));
+    }
+
     private List<ServerStatusLog> sortOfflineServers(List<ServerStatusLog> serverStatusLogs) {
 
         return serverStatusLogs.stream()
@@ -117,10 +220,12 @@ public class ServerStatusCheckerImpl implements ServerStatusChecker {
 
         for (ServerStatusLog serverStatusLog : serverStatusLogs) {
             serverStatusLog.setServerId(null);
-            serverStatusLog.setLocalDateTime(LocalDateTime.now().atOffset(ZoneOffset.ofHours(3)).toLocalDateTime());
+            if (serverStatusLog.getLocalDateTime() == null) {
+                serverStatusLog.setLocalDateTime(LocalDateTime.now().atOffset(ZoneOffset.ofHours(3)).toLocalDateTime());
+            }
 
         }
-        serverRepositoryLog.saveAll(serverStatusLogs);
+        serverRepositoryLog.saveAll(probedLogs(serverStatusResponses, serverStatusLogs));
 
         List<ServerStatusLog> serverOfflineList = sortOfflineServers(serverStatusLogs);
 
@@ -134,42 +239,426 @@ public class ServerStatusCheckerImpl implements ServerStatusChecker {
         return new ServerStatusDtoList(serverStatusResponses, serverAlertList);
     }
 
+    /**
+     * Результаты отдаются в onResult по мере готовности каждой проверки, не дожидаясь всего раунда.
+     * Через deadlineMillis раунд закрывается: незавершённые проверки отменяются и попадают
+     * в результаты как CONNECT_ERROR. Отмена доходит до самой проверки: закрывает сокет, прерывает HTTP запрос
+     * и освобождает места в лимитах; предохранитель считает такую проверку неудачной.
+     */
     @Override
-    public ServerStatusResponse serverHealthCheck(Server server, int timeout) {
+    public CompletableFuture<Void> streamServers(String scheduler, List<Server> servers, int timeout, long deadlineMillis,
+                                                 Consumer<ServerStatusResponse> onResult) {
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+
+        dnsResolverCache.prefetch(servers.stream()
+                .map(Server::getServerUrl)
+                .toList());
+
+        AtomicInteger cancelled = new AtomicInteger();
+
+        CompletableFuture<?>[] futures = servers.stream()
+                .map(server -> {
+                    CompletableFuture<ServerStatusResponse> probe = roundHealthCheck(server, timeout, deadlineNanos);
+                    ScheduledFuture<?> deadline = scheduleRoundDeadline(probe, deadlineMillis);
+                    return probe.handle((response, e) -> {
+                        if (deadline != null) {
+                            deadline.cancel(false);
+                        }
+                        if (probe.isCancelled()) {
+                            cancelled.incrementAndGet();
+                            onResult.accept(timedOutResponse(server, deadlineMillis));
+                        } else {
+                            onResult.accept(response);
+                        }
+                        return null;
+                    });
+                })
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(futures)
+                .whenComplete((ignored, e) -> {
+                    if (cancelled.get() > 0) {
+                        log.warn("{}: round deadline {} ms exceeded, {} probes cancelled", scheduler, deadlineMillis, cancelled.get());
+                        roundMetrics.forScheduler(scheduler).roundOverrun(cancelled.get());
+                    }
+                });
+    }
+
+    // По дедлайну раунда проверка отменяется; null - таймер уже остановлен, проверка идёт до своего таймаута
+    private ScheduledFuture<?> scheduleRoundDeadline(CompletableFuture<ServerStatusResponse> probe, long deadlineMillis) {
 
         try {
-            InetAddress inet = InetAddress.getByName(server.getServerUrl());
-            if (inet.isReachable(timeout)) { // Установите таймаут в миллисекундах
-                log.info(server.getServerUrl() + " online");
+            return probeTimer.schedule(() -> probe.cancel(true), deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
 
-                String url = PATH + server.getServerUrl();
+    private ServerStatusResponse timedOutResponse(Server server, long deadlineMillis) {
+
+        log.warn("{} CONNECT_ERROR: not finished within round deadline {} ms", server.getServerUrl(), deadlineMillis);
+
+        ServerStatusResponse serverStatusResponse = serverStatusMapper.serverToServerStatusResponse(server);
 
-                Map<String, String> responseCodeAndLatency = getResponseCodeAndLatency(url);
+        serverStatusResponse.setServerStatus(ServerStatus.CONNECT_ERROR);
 
-                ServerStatusResponse serverStatusResponse = serverStatusMapper.serverToServerStatusResponse(server);
+        return serverStatusResponse;
+    }
 
-                serverStatusResponse.setServerStatus(ServerStatus.ONLINE);
-                serverStatusResponse.setResponseCode(responseCodeAndLatency.get("code"));
-                serverStatusResponse.setLatency(responseCodeAndLatency.get("latency"));
+    // В лог попадают только реально проверенные серверы, результаты серверов на паузе не дублируются
+    private static List<ServerStatusLog> probedLogs(List<ServerStatusResponse> responses, List<ServerStatusLog> logs) {
 
-                return serverStatusResponse;
+        List<ServerStatusLog> probed = new ArrayList<>(logs.size());
+        for (int i = 0; i < responses.size(); i++) {
+            if (responses.get(i).getNextProbeAt() == null) {
+                probed.add(logs.get(i));
             }
+        }
+        return probed;
+    }
+
+    // Одновременные проверки одного сервера из разных расписаний и запросов сливаются в одну
+    @Override
+    public ServerStatusResponse serverHealthCheck(Server server, int timeout) {
+
+        return inFlightProbeRegistry.call(server, () -> probeServer(server, timeout, NO_DEADLINE));
+    }
+
+    private ServerStatusResponse probeServer(Server server, int timeout, long deadlineNanos) {
+
+        if (isNioEngine() || isTcpProbe(server)) {
+            try {
+                return serverHealthCheckAsync(server, timeout, deadlineNanos).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        ServerStatusResponse response = blockingHealthCheck(server, adaptiveTimeoutTracker.timeoutFor(server, timeout));
+
+        if (response.getServerStatus() == ServerStatus.OFFLINE) {
+            response = confirmOffline(server, response, timeout, deadlineNanos).join();
+        }
+
+        adaptiveTimeoutTracker.record(server, response);
+
+        return response;
+    }
+
+    private ServerStatusResponse blockingHealthCheck(Server server, int timeout) {
+
+        DnsResolverCache.Resolution resolution;
+        try {
+            resolution = dnsResolverCache.resolve(server.getServerUrl());
         } catch (UnknownHostException e) {
 
             throw new FailedToResolveHostException("Failed to resolve host " + server.getServerUrl());
+        }
+
+        return hostRateLimiter.call(resolution.address(), server, () -> blockingProbe(server, resolution, timeout));
+    }
+
+    private ServerStatusResponse blockingProbe(Server server, DnsResolverCache.Resolution resolution, int timeout) {
+
+        try {
+            if (samplePhaseTiming(server)) {
+                return phaseHealthCheck(server, resolution, timeout);
+            }
+
+            if (resolution.address().isReachable(timeout)) { // Установите таймаут в миллисекундах
+
+                String url = PATH + server.getServerUrl();
+
+                ProbeResult probeResult = serverAvailabilityChecker.getResponseCodeAndLatency(url, timeout);
+
+                return httpResponse(server, resolution, probeResult, timeout);
+            }
         } catch (IOException e) {
 
             throw new ErrorWhilePingingException("Error while pinging " + server.getServerUrl() + ": " + e.getMessage());
         }
+
+        // isReachable ждёт ответа весь таймаут
+        return offlineResponse(server, resolution, true);
+    }
+
+    // Первая проверка сервера и далее каждая phaseTimingEvery-я идут с замером фаз, остальные - быстрым путём
+    private boolean samplePhaseTiming(Server server) {
+        if (!phaseTiming) {
+            return false;
+        }
+        if (phaseTimingEvery <= 1 || server.getServerId() == null) {
+            return true;
+        }
+        long count = phaseTimingCounters.computeIfAbsent(server.getServerId(), id -> new AtomicLong())
+                .getAndIncrement();
+        return count % phaseTimingEvery == 0;
+    }
+
+    // Та же проверка через NioProbeEngine: connect на 443 порт вместо isReachable, затем асинхронный HTTP запрос.
+    // Для TCP проверки - только неблокирующий connect на порт сервера
+    private CompletableFuture<ServerStatusResponse> serverHealthCheckAsync(Server server, int timeout, long deadlineNanos) {
+
+        CompletableFuture<ServerStatusResponse> confirmed = ProbeFutures.thenComposeCancellable(
+                asyncHealthCheck(server, adaptiveTimeoutTracker.timeoutFor(server, timeout)),
+                response -> response.getServerStatus() == ServerStatus.OFFLINE
+                        ? confirmOffline(server, response, timeout, deadlineNanos)
+                        : CompletableFuture.completedFuture(response));
+
+        return ProbeFutures.cancelling(confirmed.whenComplete((response, e) -> {
+            if (response != null) {
+                adaptiveTimeoutTracker.record(server, response);
+            }
+        }), confirmed);
+    }
+
+    /**
+     * Подтверждение OFFLINE: до confirmAttempts повторных проверок запускаются с шагом hedgeDelay,
+     * не дожидаясь друг друга; для HTTPS серверов каждая вторая - TCP connect на 443 порт.
+     * Первая успешная делает сервер ONLINE, OFFLINE остаётся только если согласны все.
+     * Повторы идут с глобальным таймаутом - адаптивный мог оказаться слишком коротким.
+     * Вся стадия укладывается в timeout + attempts * hedgeDelay, но не дольше остатка раунда:
+     * повторы, которые не успевают до дедлайна раунда, не запускаются.
+     * Запуски по времени идут на своём таймере, а не на общем Delayer и не через пул проверок.
+     */
+    private CompletableFuture<ServerStatusResponse> confirmOffline(Server server, ServerStatusResponse offline, int timeout, long deadlineNanos) {
+
+        if (!confirmEnabled || confirmAttempts <= 0) {
+            return CompletableFuture.completedFuture(offline);
+        }
+
+        long budgetMillis = confirmBudgetMillis(timeout, deadlineNanos);
+        if (budgetMillis <= 0) {
+            return CompletableFuture.completedFuture(offline);
+        }
+
+        CompletableFuture<ServerStatusResponse> confirmed = new CompletableFuture<>();
+        List<CompletableFuture<ServerStatusResponse>> hedges = new ArrayList<>(confirmAttempts);
+        List<ScheduledFuture<?>> timers = new ArrayList<>(confirmAttempts + 1);
+
+        try {
+            for (int attempt = 0; attempt < confirmAttempts; attempt++) {
+                long delay = attempt * confirmHedgeDelay;
+                if (delay >= budgetMillis) {
+                    break;
+                }
+                boolean alternate = confirmAlternateType && attempt % 2 == 0;
+                int attemptTimeout = (int) Math.min(timeout, budgetMillis - delay);
+
+                CompletableFuture<ServerStatusResponse> hedge = new CompletableFuture<>();
+                timers.add(probeTimer.schedule(() -> {
+                    if (confirmed.isDone()) {
+                        hedge.complete(offline);
+                        return;
+                    }
+                    CompletableFuture<ServerStatusResponse> reprobe = startReprobe(server, alternate, attemptTimeout);
+                    reprobe.whenComplete((response, e) -> hedge.complete(e == null ? response : offline));
+                    ProbeFutures.cancelling(hedge, reprobe);
+                }, delay, TimeUnit.MILLISECONDS));
+                hedge.thenAccept(response -> {
+                    if (response.getServerStatus() == ServerStatus.ONLINE) {
+                        log.info("{} OFFLINE not confirmed by re-probe", server.getServerUrl());
+                        confirmed.complete(response);
+                    }
+                });
+                hedges.add(hedge);
+            }
+            timers.add(probeTimer.schedule(() -> confirmed.complete(offline), budgetMillis, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            confirmed.complete(offline);
+        }
+
+        CompletableFuture.allOf(hedges.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, e) -> confirmed.complete(offline));
+
+        // Итог известен (или подтверждение отменено) - оставшиеся повторы больше не нужны
+        confirmed.whenComplete((response, e) -> {
+            timers.forEach(timer -> timer.cancel(false));
+            hedges.forEach(hedge -> hedge.cancel(true));
+        });
+        return confirmed;
+    }
+
+    // Без дедлайна раунда (отдельная проверка) - полный бюджет подтверждения
+    private long confirmBudgetMillis(int timeout, long deadlineNanos) {
+
+        long budget = timeout + confirmAttempts * confirmHedgeDelay;
+        if (deadlineNanos == NO_DEADLINE) {
+            return budget;
+        }
+        return Math.min(budget, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    // Повтор стартует в потоке таймера: сам по себе он неблокирующий, а отказ пула - просто неудачный повтор
+    private CompletableFuture<ServerStatusResponse> startReprobe(Server server, boolean alternate, int timeout) {
+
+        try {
+            return reprobe(server, alternate, timeout);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<ServerStatusResponse> reprobe(Server server, boolean alternate, int timeout) {
+
+        return ProbeFutures.thenComposeCancellable(dnsResolverCache.resolveAsync(server.getServerUrl()),
+                resolution -> hostRateLimiter.execute(resolution.address(), server,
+                        () -> alternate && !isTcpProbe(server)
+                                ? tcpHealthCheck(server, resolution, timeout)
+                                : asyncProbe(server, resolution, timeout)));
+    }
+
+    private CompletableFuture<ServerStatusResponse> asyncHealthCheck(Server server, int timeout) {
+
+        CompletableFuture<DnsResolverCache.Resolution> resolved = dnsResolverCache.resolveAsync(server.getServerUrl())
+                .exceptionally(e -> {
+                    throw new FailedToResolveHostException("Failed to resolve host " + server.getServerUrl());
+                });
+
+        // Проверки одного адреса идут через лимиты этого адреса
+        return ProbeFutures.thenComposeCancellable(resolved, resolution -> hostRateLimiter.execute(resolution.address(), server,
+                () -> asyncProbe(server, resolution, timeout)));
+    }
+
+    private CompletableFuture<ServerStatusResponse> asyncProbe(Server server, DnsResolverCache.Resolution resolution, int timeout) {
+
+        if (isTcpProbe(server)) {
+            return tcpHealthCheck(server, resolution, timeout);
+        }
+
+        if (samplePhaseTiming(server)) {
+            return CompletableFuture.supplyAsync(() -> phaseHealthCheck(server, resolution, timeout), probeExecutor);
+        }
+
+        // Отмена проверки закрывает соединение или прерывает HTTP запрос - смотря на каком она этапе
+        CompletableFuture<Long> connect = nioProbeEngine.connect(resolution.address(), HTTPS_PORT, timeout);
+        CompletableFuture<Long> connected = ProbeFutures.cancelling(connect.handle((connectNanos, e) -> {
+            if (e == null) {
+                return connectNanos;
+            }
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof SocketTimeoutException) {
+                return CONNECT_TIMED_OUT;
+            }
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException) {
+                return null;
+            }
+            throw new ErrorWhilePingingException("Error while pinging " + server.getServerUrl() + ": " + cause.getMessage());
+        }), connect);
+
+        return ProbeFutures.thenComposeCancellable(connected, connectNanos -> {
+            if (connectNanos == null || connectNanos == CONNECT_TIMED_OUT) {
+                return CompletableFuture.completedFuture(offlineResponse(server, resolution, connectNanos != null));
+            }
+            CompletableFuture<ProbeResult> request = serverAvailabilityChecker.getResponseCodeAndLatencyAsync(PATH + server.getServerUrl(), timeout);
+            return ProbeFutures.cancelling(request.thenApply(probeResult -> {
+                ServerStatusResponse response = httpResponse(server, resolution, probeResult, timeout);
+                response.setConnectNanos(connectNanos);
+                return response;
+            }), request);
+        });
+    }
+
+    private CompletableFuture<ServerStatusResponse> tcpHealthCheck(Server server, DnsResolverCache.Resolution resolution, int timeout) {
+
+        int port = server.getProbePort() != null ? server.getProbePort() : HTTPS_PORT;
+
+        CompletableFuture<Long> connect = nioProbeEngine.connect(resolution.address(), port, timeout);
+        return ProbeFutures.cancelling(connect.handle((connectNanos, e) -> {
+            if (e == null) {
+                ServerStatusResponse response = onlineResponse(server, resolution, ProbeResult.NO_CODE,
+                        TimeUnit.NANOSECONDS.toMicros(connectNanos));
+                response.setConnectNanos(connectNanos);
+                return response;
+            }
+            // OFFLINE - только если сервер не принял соединение; прочие ошибки (в том числе локальные) пробрасываются
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof SocketTimeoutException) {
+                return offlineResponse(server, resolution, cause instanceof SocketTimeoutException);
+            }
+            throw new ErrorWhilePingingException("Error while connecting to " + server.getServerUrl() + ":" + port + ": " + cause.getMessage());
+        }), connect);
+    }
+
+    // Проверка одним соединением с замером фаз: не удалось соединиться - OFFLINE
+    private ServerStatusResponse phaseHealthCheck(Server server, DnsResolverCache.Resolution resolution, int timeout) {
+
+        ServerAvailabilityChecker.PhaseTimings timings;
+        try {
+            timings = serverAvailabilityChecker.getPhaseTimings(resolution.address(), server.getServerUrl(), HTTPS_PORT, timeout);
+        } catch (ConnectException | NoRouteToHostException | SocketTimeoutException e) {
+            return offlineResponse(server, resolution, e instanceof SocketTimeoutException);
+        } catch (IOException e) {
+            throw new ErrorWhilePingingException("Error while pinging " + server.getServerUrl() + ": " + e.getMessage());
+        }
+
+        ServerStatusResponse response = onlineResponse(server, resolution,
+                timings.responseCode() != null ? timings.responseCode() : ProbeResult.NO_CODE,
+                TimeUnit.NANOSECONDS.toMicros(timings.totalNanos()));
+        response.setConnectNanos(timings.connectNanos());
+        response.setTlsNanos(timings.tlsNanos());
+        response.setTtfbNanos(timings.ttfbNanos());
+        return response;
+    }
+
+    // Соединение установлено, но HTTP запрос мог не пройти - тогда статус из результата запроса (OFFLINE), а не ONLINE
+    private ServerStatusResponse httpResponse(Server server, DnsResolverCache.Resolution resolution, ProbeResult probeResult, int timeout) {
+
+        ServerStatusResponse response = probedResponse(server, resolution, probeResult.serverStatus(),
+                probeResult.hasCode() ? probeResult.code() : ProbeResult.NO_CODE, probeResult.latencyMicros());
+        response.setTimedOut(!probeResult.hasCode() && probeResult.latencyMicros() >= TimeUnit.MILLISECONDS.toMicros(timeout));
+        response.setProbedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(probeResult.probedAtMillis()), ZoneId.systemDefault()));
+        return response;
+    }
+
+    private ServerStatusResponse onlineResponse(Server server, DnsResolverCache.Resolution resolution,
+                                                int responseCode, long latencyMicros) {
+
+        return probedResponse(server, resolution, ServerStatus.ONLINE, responseCode, latencyMicros);
+    }
+
+    private ServerStatusResponse probedResponse(Server server, DnsResolverCache.Resolution resolution, ServerStatus status,
+                                                int responseCode, long latencyMicros) {
+
+        log.info(server.getServerUrl() + " " + (status == ServerStatus.ONLINE ? "online" : status));
+
+        ServerStatusResponse serverStatusResponse = serverStatusMapper.serverToServerStatusResponse(server);
+
+        serverStatusResponse.setServerStatus(status);
+        serverStatusResponse.setDnsNanos(resolution.nanos());
+        serverStatusResponse.setResponseCode(responseCode != ProbeResult.NO_CODE ? responseCode : null);
+        serverStatusResponse.setLatencyMicros(latencyMicros);
+
+        return serverStatusResponse;
+    }
+
+    private ServerStatusResponse offlineResponse(Server server, DnsResolverCache.Resolution resolution, boolean timedOut) {
+
         log.info(server.getServerUrl() + " OFFLINE !!!!");
 
         ServerStatusResponse serverStatusResponse = serverStatusMapper.serverToServerStatusResponse(server);
 
         serverStatusResponse.setServerStatus(ServerStatus.OFFLINE);
+        serverStatusResponse.setDnsNanos(resolution.nanos());
+        serverStatusResponse.setTimedOut(timedOut);
 
         return serverStatusResponse;
     }
 
+    private boolean isNioEngine() {
+        return "nio".equalsIgnoreCase(probeEngine);
+    }
+
+    private static boolean isTcpProbe(Server server) {
+        return server.getProbeType() == ProbeType.TCP;
+    }
+
     private List<List<Server>> splitIntoGroups(List<Server> list, int size) {
         List<List<Server>> result = new ArrayList<>();
         for (int i = 0; i < list.size(); i += size) {
@@ -180,20 +669,79 @@ public class ServerStatusCheckerImpl implements ServerStatusChecker {
 
 
     private List<ServerStatusResponse> parallelProcess(List<List<Server>> groups, int timeout) {
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        try {
-            List<CompletableFuture<ServerStatusResponse>> futures = new ArrayList<>();
-            for (List<Server> group : groups) {
-                futures.addAll(group.stream()
-                        .map(server -> CompletableFuture.supplyAsync(() -> serverHealthCheck(server, timeout), executor))
-                        .toList());
-            }
-            return futures.stream()
-                    .map(CompletableFuture::join)
-                    .collect(Collectors.toList());
-        } finally {
-            executor.shutdown();
+
+        // Все имена начинают разрешаться сразу, до того как проверки встанут в очередь
+        dnsResolverCache.prefetch(groups.stream()
+                .flatMap(List::stream)
+                .map(Server::getServerUrl)
+                .toList());
+
+        List<CompletableFuture<ServerStatusResponse>> futures = new ArrayList<>();
+        for (List<Server> group : groups) {
+            futures.addAll(group.stream()
+                    .map(server -> roundHealthCheck(server, timeout, NO_DEADLINE))
+                    .toList());
         }
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    // Проверка в составе раунда: серверы на паузе предохранителя не проверяются, ошибки проверки не пробрасываются
+    private CompletableFuture<ServerStatusResponse> roundHealthCheck(Server server, int timeout, long deadlineNanos) {
+
+        ServerStatusResponse backedOff = probeCircuitBreaker.backedOffResponse(server);
+        if (backedOff != null) {
+            return CompletableFuture.completedFuture(backedOff);
+        }
+
+        // Сколько проверок раунда идёт одновременно, решает AIMD-предел: растёт, пока проверки здоровые,
+        // и резко снижается на таймаутах и нехватке портов/дескрипторов
+        CompletableFuture<ServerStatusResponse> probe = adaptiveConcurrencyLimiter.execute(
+                adaptiveTimeoutTracker.timeoutFor(server, timeout),
+                () -> isNioEngine()
+                        ? inFlightProbeRegistry.execute(server, () -> serverHealthCheckAsync(server, timeout, deadlineNanos))
+                        : CompletableFuture.supplyAsync(() -> inFlightProbeRegistry.call(server,
+                                () -> probeServer(server, timeout, deadlineNanos)), probeExecutor));
+
+        // Отменённая по дедлайну раунда проверка - тоже неудача для предохранителя, CONNECT_ERROR за неё выдаёт раунд
+        probe.whenComplete((response, e) -> {
+            if (probe.isCancelled()) {
+                probeCircuitBreaker.record(server, null);
+            }
+        });
+
+        // Отказ локальной очереди или пула - не вина сервера, предохранитель его не учитывает,
+        // а пробную проверку после паузы отпускает, иначе сервер остался бы на паузе навсегда
+        CompletableFuture<ServerStatusResponse> result = probe.handle((response, e) -> {
+            ServerStatusResponse checked = e == null ? response : errorResponse(server, e);
+            if (isLocalRejection(e)) {
+                probeCircuitBreaker.releaseHalfOpen(server);
+            } else {
+                probeCircuitBreaker.record(server, checked);
+            }
+            return checked;
+        });
+        return ProbeFutures.cancelling(result, probe);
+    }
+
+    private static boolean isLocalRejection(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof RejectedExecutionException;
+    }
+
+    // Ошибка одной проверки не должна прерывать раунд: сервер получает CONNECT_ERROR, остальные результаты сохраняются
+    private ServerStatusResponse errorResponse(Server server, Throwable e) {
+
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        log.warn("{} CONNECT_ERROR: {}", server.getServerUrl(), cause.getMessage());
+
+        ServerStatusResponse serverStatusResponse = serverStatusMapper.serverToServerStatusResponse(server);
+
+        serverStatusResponse.setServerStatus(ServerStatus.CONNECT_ERROR);
+
+        return serverStatusResponse;
     }
 
 }
@@ -0,0 +1,299 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ConcurrencyLimitStatsResponse;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.sun.management.UnixOperatingSystemMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.BindException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Предел одновременных проверок раунда по AIMD. Пока проверки заканчиваются быстро (меньше
+ * healthyLatencyRatio от таймаута) и предел действительно используется, он растёт на 1 за каждые limit проверок.
+ * Предел умножается на backoffRatio, если:
+ * - доля проверок, упёршихся в таймаут, за последние window проверок больше timeoutRatio;
+ * - проверка упала на нехватке локальных ресурсов (EADDRNOTAVAIL - кончились эфемерные порты, EMFILE - дескрипторы)
+ *   или на отказе переполненного пула проверок;
+ * - открыто больше fdHighWatermark от допустимого числа дескрипторов.
+ * Снижения идут не чаще decreaseCooldownMillis, чтобы одна волна отказов не обрушила предел до minLimit.
+ * Упёршейся в таймаут считается проверка, которая сама об этом сообщила (ServerStatusResponse.timedOut),
+ * а здоровой - по её собственной задержке: ожидание в лимитах адреса и очередях в счёт не идёт.
+ * Проверки сверх предела ждут в очереди не больше maxQueued, остальные сразу отклоняются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdaptiveConcurrencyLimiter {
+
+    private final ProbeExecutor probeExecutor;
+
+    @Value("${probe.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${probe.concurrency.initialLimit:32}")
+    private int initialLimit;
+
+    @Value("${probe.concurrency.minLimit:4}")
+    private int minLimit;
+
+    @Value("${probe.concurrency.maxLimit:1024}")
+    private int maxLimit;
+
+    @Value("${probe.concurrency.backoffRatio:0.5}")
+    private double backoffRatio;
+
+    @Value("${probe.concurrency.healthyLatencyRatio:0.5}")
+    private double healthyLatencyRatio;
+
+    @Value("${probe.concurrency.timeoutRatio:0.2}")
+    private double timeoutRatio;
+
+    @Value("${probe.concurrency.window:50}")
+    private int window;
+
+    @Value("${probe.concurrency.decreaseCooldownMillis:1000}")
+    private long decreaseCooldownMillis;
+
+    @Value("${probe.concurrency.fdHighWatermark:0.8}")
+    private double fdHighWatermark;
+
+    @Value("${probe.concurrency.maxQueued:10000}")
+    private int maxQueued;
+
+    private final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-concurrency-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Deque<Runnable> waiters = new ArrayDeque<>();
+
+    private double limit;
+
+    private int inFlight;
+
+    private int windowSamples;
+
+    private int windowTimeouts;
+
+    private long lastDecreaseMillis;
+
+    private long lastFdCheckMillis;
+
+    private long decreases;
+
+    private String lastDecreaseReason;
+
+    // Предел выше ёмкости пула проверок только превращал бы лишние проверки в отказы пула
+    @PostConstruct
+    public void init() {
+        int capacity = probeExecutor.capacity();
+        if (maxLimit > capacity) {
+            log.info("Probe concurrency maxLimit {} capped by probe executor capacity {}", maxLimit, capacity);
+            maxLimit = Math.max(minLimit, capacity);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * Запускает проверку, когда есть свободное место. timeoutMillis - таймаут соединения этой проверки,
+     * с ним сравнивается её задержка. Очередь заполнена - результат завершается RejectedExecutionException.
+     */
+    public CompletableFuture<ServerStatusResponse> execute(int timeoutMillis, Supplier<CompletableFuture<ServerStatusResponse>> probe) {
+
+        if (!enabled) {
+            return probe.get();
+        }
+
+        CompletableFuture<ServerStatusResponse> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            // Отменённая в очереди проверка не запускается, место сразу отдаётся следующей
+            if (result.isDone()) {
+                release();
+                return;
+            }
+            long startTime = System.nanoTime();
+            CompletableFuture<ServerStatusResponse> started;
+            try {
+                started = probe.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((response, e) -> {
+                onSample(timeoutMillis, System.nanoTime() - startTime, response, e);
+                release();
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(response);
+                }
+            });
+            ProbeFutures.cancelling(result, started);
+        };
+
+        boolean startNow;
+        synchronized (this) {
+            startNow = inFlight < (int) limit;
+            if (startNow) {
+                inFlight++;
+            } else if (waiters.size() >= maxQueued) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Probe concurrency queue is full: " + waiters.size() + " waiting"));
+            } else {
+                waiters.add(start);
+            }
+        }
+        if (startNow) {
+            start.run();
+        } else {
+            result.whenComplete((response, e) -> {
+                if (result.isCancelled()) {
+                    synchronized (this) {
+                        waiters.remove(start);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    public synchronized ConcurrencyLimitStatsResponse getStats() {
+
+        long[] fds = fileDescriptors();
+        return ConcurrencyLimitStatsResponse.builder()
+                .enabled(enabled)
+                .limit((int) limit)
+                .inFlight(inFlight)
+                .queued(waiters.size())
+                .decreases(decreases)
+                .lastDecreaseReason(lastDecreaseReason)
+                .openFileDescriptors(fds[0])
+                .maxFileDescriptors(fds[1])
+                .build();
+    }
+
+    // Освободившиеся места отдаются ожидающим; запуск - в отдельном потоке, а не в потоке завершившейся проверки
+    private void release() {
+
+        List<Runnable> ready = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                inFlight++;
+                ready.add(waiters.poll());
+            }
+        }
+        for (Runnable start : ready) {
+            dispatchExecutor.execute(start);
+        }
+    }
+
+    private synchronized void onSample(int timeoutMillis, long elapsedNanos, ServerStatusResponse response, Throwable e) {
+
+        long now = System.currentTimeMillis();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        // Отменённая по дедлайну раунда проверка тоже считается упёршейся в таймаут
+        boolean timedOut = e instanceof CancellationException || (e == null && response != null && response.isTimedOut());
+
+        // Своя задержка проверки, если она её сообщила, иначе - время с выхода из этой очереди
+        long probeNanos = response != null && response.getLatencyMicros() != null
+                ? TimeUnit.MICROSECONDS.toNanos(response.getLatencyMicros())
+                : elapsedNanos;
+
+        windowSamples++;
+        if (timedOut) {
+            windowTimeouts++;
+        }
+
+        String localError = e != null ? localResourceError(e) : null;
+        if (localError != null) {
+            decrease(now, localError);
+        } else if (windowSamples >= window) {
+            if (windowTimeouts > windowSamples * timeoutRatio) {
+                decrease(now, "timeouts " + windowTimeouts + " of " + windowSamples);
+            }
+            windowSamples = 0;
+            windowTimeouts = 0;
+        }
+
+        if (now - lastFdCheckMillis >= decreaseCooldownMillis) {
+            lastFdCheckMillis = now;
+            long[] fds = fileDescriptors();
+            if (fds[0] >= 0 && fds[1] > 0 && fds[0] > fds[1] * fdHighWatermark) {
+                decrease(now, "file descriptors " + fds[0] + " of " + fds[1]);
+            }
+        }
+
+        boolean healthy = e == null && response != null && !timedOut
+                && probeNanos < timeoutNanos * healthyLatencyRatio;
+        // Растём, только если предел упирается в нагрузку, иначе он вырос бы без проверки на деле
+        if (healthy && now - lastDecreaseMillis >= decreaseCooldownMillis && inFlight >= limit / 2) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void decrease(long now, String reason) {
+
+        if (now - lastDecreaseMillis < decreaseCooldownMillis) {
+            return;
+        }
+        double previous = limit;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseMillis = now;
+        decreases++;
+        lastDecreaseReason = reason;
+        log.warn("Probe concurrency limit {} -> {}: {}", (int) previous, (int) limit, reason);
+    }
+
+    // EADDRNOTAVAIL и EMFILE приходят как BindException или IOException с текстом ошибки ОС, часто внутри обёрток
+    private static String localResourceError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (cause instanceof BindException
+                    || (message != null && message.contains("Cannot assign requested address"))) {
+                return "ephemeral ports exhausted: " + message;
+            }
+            if (message != null && message.contains("Too many open files")) {
+                return "file descriptors exhausted: " + message;
+            }
+            if (cause instanceof RejectedExecutionException) {
+                return "probe executor saturated: " + message;
+            }
+        }
+        return null;
+    }
+
+    private static long[] fileDescriptors() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof UnixOperatingSystemMXBean unix) {
+            return new long[]{unix.getOpenFileDescriptorCount(), unix.getMaxFileDescriptorCount()};
+        }
+        return new long[]{-1, -1};
+    }
+}
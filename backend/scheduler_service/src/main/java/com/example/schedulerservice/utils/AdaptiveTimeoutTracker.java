@@ -0,0 +1,115 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.entity.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймаут проверки для каждого сервера по последним замерам: перцентиль задержки,
+ * умноженный на multiplier, в пределах floor..ceiling. Глобальный таймаут планировщика
+ * всегда остаётся верхней границей. Пока замеров меньше minSamples, используется глобальный.
+ */
+@Component
+public class AdaptiveTimeoutTracker {
+
+    @Value("${probe.adaptiveTimeout.enabled:true}")
+    private boolean enabled;
+
+    @Value("${probe.adaptiveTimeout.percentile:0.99}")
+    private double percentile;
+
+    @Value("${probe.adaptiveTimeout.multiplier:3}")
+    private double multiplier;
+
+    @Value("${probe.adaptiveTimeout.floor:20}")
+    private int floor;
+
+    @Value("${probe.adaptiveTimeout.ceiling:5000}")
+    private int ceiling;
+
+    @Value("${probe.adaptiveTimeout.window:64}")
+    private int window;
+
+    @Value("${probe.adaptiveTimeout.minSamples:8}")
+    private int minSamples;
+
+    private final Map<UUID, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    public int timeoutFor(Server server, int globalTimeout) {
+
+        if (!enabled || server.getServerId() == null) {
+            return globalTimeout;
+        }
+
+        LatencyWindow latencyWindow = windows.get(server.getServerId());
+        if (latencyWindow == null) {
+            return globalTimeout;
+        }
+
+        long percentileNanos = latencyWindow.percentile(percentile, minSamples);
+        if (percentileNanos < 0) {
+            return globalTimeout;
+        }
+
+        long adaptive = (long) Math.ceil(TimeUnit.NANOSECONDS.toMillis(percentileNanos) * multiplier);
+        long bounded = Math.max(floor, Math.min(ceiling, adaptive));
+
+        return (int) Math.min(globalTimeout, bounded);
+    }
+
+    // Учитываются только успешные проверки: время соединения, а если его нет - общая задержка
+    public void record(Server server, ServerStatusResponse response) {
+
+        if (!enabled || server.getServerId() == null || response.getServerStatus() != ServerStatus.ONLINE) {
+            return;
+        }
+
+        Long sample = response.getConnectNanos();
+        if (sample == null && response.getLatencyMicros() != null) {
+            sample = TimeUnit.MICROSECONDS.toNanos(response.getLatencyMicros());
+        }
+        if (sample == null) {
+            return;
+        }
+
+        windows.computeIfAbsent(server.getServerId(), id -> new LatencyWindow(window)).add(sample);
+    }
+
+    private static final class LatencyWindow {
+
+        private final long[] samples;
+
+        private int count;
+
+        private int next;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        private synchronized void add(long sample) {
+            samples[next] = sample;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        private synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(percentile * count) - 1);
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
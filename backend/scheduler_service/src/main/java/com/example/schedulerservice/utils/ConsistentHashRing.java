@@ -0,0 +1,84 @@
+package com.example.schedulerservice.utils;
+
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Кольцо consistent hashing: у каждого участника virtualNodes точек, ключ принадлежит участнику
+ * ближайшей точки по часовой стрелке. При смене состава переезжают только ключи соседей изменившегося участника.
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    private final int members;
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(member + "#" + i), member);
+            }
+        }
+        this.members = members.size();
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    // null - кольцо пустое
+    public String ownerOf(String key) {
+        List<String> owners = ownersOf(key, 1);
+        return owners.isEmpty() ? null : owners.get(0);
+    }
+
+    /**
+     * count разных участников, начиная с владельца ключа по часовой стрелке - для копий на нескольких участниках.
+     */
+    public List<String> ownersOf(String key, int count) {
+
+        List<String> owners = new ArrayList<>(Math.min(count, members));
+        if (ring.isEmpty()) {
+            return owners;
+        }
+
+        long hash = hash(key);
+        for (String member : ring.tailMap(hash, true).values()) {
+            if (owners.size() >= count || owners.size() >= members) {
+                return owners;
+            }
+            if (!owners.contains(member)) {
+                owners.add(member);
+            }
+        }
+        for (String member : ring.headMap(hash, false).values()) {
+            if (owners.size() >= count || owners.size() >= members) {
+                return owners;
+            }
+            if (!owners.contains(member)) {
+                owners.add(member);
+            }
+        }
+        return owners;
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result = (result << 8) | (digest[i] & 0xFF);
+            }
+            return result;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.dto.response.DnsCacheStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш DNS для проверок. Успешные ответы живут ttl секунд, неудачные - negativeTtl.
+ * Успешные записи, которым осталось жить меньше refreshAhead, отдаются из кэша и обновляются в фоне.
+ * Неудачные заранее не обновляются: иначе при refreshAhead >= negativeTtl каждый раунд заново
+ * разрешал бы все несуществующие хосты, и отрицательный кэш ничего бы не давал.
+ * Одновременные запросы одного хоста ждут одно и то же разрешение имени.
+ */
+@Slf4j
+@Component
+public class DnsResolverCache {
+
+    @Value("${probe.dns.ttl:300}")
+    private int ttl;
+
+    @Value("${probe.dns.negativeTtl:30}")
+    private int negativeTtl;
+
+    @Value("${probe.dns.refreshAhead:30}")
+    private int refreshAhead;
+
+    @Value("${probe.dns.resolverThreads:8}")
+    private int resolverThreads;
+
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, CompletableFuture<InetAddress>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong negativeHits = new AtomicLong();
+
+    private ExecutorService resolverExecutor;
+
+    public record Resolution(InetAddress address, long nanos) {
+    }
+
+    private record Entry(InetAddress address, long expiresAt) {
+
+        boolean negative() {
+            return address == null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        resolverExecutor = Executors.newFixedThreadPool(resolverThreads, runnable -> {
+            Thread thread = new Thread(runnable, "probe-resolver-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resolverExecutor.shutdownNow();
+    }
+
+    /**
+     * Разрешение имени с замером времени. Для попадания в кэш время близко к нулю.
+     */
+    public CompletableFuture<Resolution> resolveAsync(String host) {
+        long start = System.nanoTime();
+        return lookup(host).thenApply(address -> new Resolution(address, System.nanoTime() - start));
+    }
+
+    public Resolution resolve(String host) throws UnknownHostException {
+        try {
+            return resolveAsync(host).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UnknownHostException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Запускает фоновое разрешение всех хостов, которых нет в кэше или которые скоро устареют.
+     * Вызывается перед раундом, чтобы проверки не стояли в очереди к DNS.
+     */
+    public void prefetch(Collection<String> hosts) {
+        long now = System.nanoTime();
+        for (String host : hosts) {
+            Entry entry = cache.get(host);
+            if (entry == null || needsRefresh(entry, now)) {
+                refresh(host);
+            }
+        }
+    }
+
+    public DnsCacheStatsResponse getStats() {
+        return DnsCacheStatsResponse.builder()
+                .size(cache.size())
+                .inFlight(inFlight.size())
+                .hits(hits.get())
+                .misses(misses.get())
+                .negativeHits(negativeHits.get())
+                .build();
+    }
+
+    // Отрицательная запись обновляется только после истечения, положительная - за refreshAhead до него
+    private boolean needsRefresh(Entry entry, long now) {
+        long remaining = entry.expiresAt() - now;
+        if (entry.negative()) {
+            return remaining <= 0;
+        }
+        return remaining < TimeUnit.SECONDS.toNanos(refreshAhead);
+    }
+
+    private CompletableFuture<InetAddress> lookup(String host) {
+        long now = System.nanoTime();
+        Entry entry = cache.get(host);
+
+        if (entry != null && entry.expiresAt() - now > 0) {
+            if (entry.negative()) {
+                negativeHits.incrementAndGet();
+                return CompletableFuture.failedFuture(new UnknownHostException(host));
+            }
+            hits.incrementAndGet();
+            if (entry.expiresAt() - now < TimeUnit.SECONDS.toNanos(refreshAhead)) {
+                refresh(host);
+            }
+            return CompletableFuture.completedFuture(entry.address());
+        }
+
+        misses.incrementAndGet();
+        return refresh(host);
+    }
+
+    private CompletableFuture<InetAddress> refresh(String host) {
+        CompletableFuture<InetAddress> existing = inFlight.get(host);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<InetAddress> created = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(host, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            resolverExecutor.execute(() -> {
+                try {
+                    InetAddress address = InetAddress.getByName(host);
+                    cache.put(host, new Entry(address, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl)));
+                    inFlight.remove(host, created);
+                    created.complete(address);
+                } catch (UnknownHostException e) {
+                    cache.put(host, new Entry(null, System.nanoTime() + TimeUnit.SECONDS.toNanos(negativeTtl)));
+                    inFlight.remove(host, created);
+                    created.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    inFlight.remove(host, created);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(host, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+}
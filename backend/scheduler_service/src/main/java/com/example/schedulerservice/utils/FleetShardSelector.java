@@ -0,0 +1,116 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.entity.Server;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Делит серверы между экземплярами scheduler_service через consistent hashing по списку живых
+ * экземпляров из Eureka. Каждый экземпляр проверяет только свою часть; при появлении или уходе
+ * экземпляра переезжает только часть серверов, соседняя с ним на кольце.
+ * Режим взаимоисключающий с лидером для общего раунда: при делении общий раунд идёт на всех экземплярах
+ * без аренды лидера, и каждый оповещает по своей части. По умолчанию выключен - общий раунд только на лидере.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FleetShardSelector {
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+
+    @Value("${probe.shard.enabled:false}")
+    private boolean enabled;
+
+    // Точек на кольце на экземпляр - чем больше, тем ровнее делятся серверы
+    @Value("${probe.shard.virtualNodes:128}")
+    private int virtualNodes;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    @Value("${eureka.instance.instance-id:${spring.application.name}}")
+    private String configuredInstanceId;
+
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 0);
+
+    private volatile TreeSet<String> members = new TreeSet<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getInstanceId() {
+        Registration self = registration.getIfAvailable();
+        return self != null && self.getInstanceId() != null ? self.getInstanceId() : configuredInstanceId;
+    }
+
+    public List<String> getMembers() {
+        return List.copyOf(members);
+    }
+
+    /**
+     * Перечитывает список экземпляров и перестраивает кольцо, если состав изменился.
+     * Себя экземпляр считает участником даже до регистрации в Eureka: лучше ненадолго
+     * проверить часть серверов дважды, чем не проверить их вовсе.
+     */
+    public void refresh() {
+
+        if (!enabled) {
+            return;
+        }
+
+        String self = getInstanceId();
+        TreeSet<String> current = new TreeSet<>();
+        try {
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                String instanceId = instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ":" + instance.getPort();
+                if (instanceId.equals(self) && !isSelf(instance)) {
+                    log.error("Instance id {} is also used by {}:{} - both instances own the same servers and compete for one leader lease, "
+                            + "make eureka.instance.instance-id unique per replica", self, instance.getHost(), instance.getPort());
+                }
+                current.add(instanceId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to read {} instances from discovery: {}", serviceId, e.getMessage());
+            return;
+        }
+        current.add(self);
+
+        if (current.equals(members)) {
+            return;
+        }
+
+        log.info("Probe shard ring rebuilt: {} -> {}", members, current);
+        ring = new ConsistentHashRing(current, virtualNodes);
+        members = current;
+    }
+
+    // Без регистрации сравнить не с чем - совпадение id считается своим
+    private boolean isSelf(ServiceInstance instance) {
+        Registration self = registration.getIfAvailable();
+        if (self == null || self.getHost() == null) {
+            return true;
+        }
+        return self.getHost().equalsIgnoreCase(instance.getHost()) && self.getPort() == instance.getPort();
+    }
+
+    public boolean owns(Server server) {
+
+        ConsistentHashRing currentRing = ring;
+        if (!enabled || currentRing.isEmpty()) {
+            return true;
+        }
+        return getInstanceId().equals(currentRing.ownerOf(String.valueOf(server.getServerId())));
+    }
+}
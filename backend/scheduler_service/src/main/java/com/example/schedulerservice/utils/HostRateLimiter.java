@@ -0,0 +1,222 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.entity.Server;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Ограничение проверок по разрешённому адресу: несколько vhost за одним IP или балансировщиком
+ * проверяются не больше maxConcurrent одновременно и не чаще ratePerSecond (token bucket с запасом burst).
+ * Сервер может задать свои лимиты - для адреса действует самый строгий из них.
+ * Ожидание не блокирует потоки: проверка стартует, когда освобождается место и есть токен.
+ */
+@Component
+public class HostRateLimiter {
+
+    @Value("${probe.hostLimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${probe.hostLimit.maxConcurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${probe.hostLimit.ratePerSecond:10}")
+    private double ratePerSecond;
+
+    @Value("${probe.hostLimit.burst:10}")
+    private int burst;
+
+    private final Map<InetAddress, HostState> hosts = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService refillScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-host-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        refillScheduler.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> execute(InetAddress address, Server server, Supplier<CompletableFuture<T>> probe) {
+
+        if (!enabled) {
+            return probe.get();
+        }
+
+        HostState host = hosts.computeIfAbsent(address, a -> new HostState());
+
+        // Отмена до своей очереди снимает проверку из ожидающих, после - отменяет саму проверку
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> waiter = host.acquire(server);
+        waiter.thenRun(() -> {
+            if (result.isDone()) {
+                host.release();
+                return;
+            }
+            CompletableFuture<T> started;
+            try {
+                started = probe.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, e) -> {
+                host.release();
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(value);
+                }
+            });
+            ProbeFutures.cancelling(result, started);
+        });
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled() && waiter.cancel(false)) {
+                host.forget(waiter);
+            }
+        });
+        return result;
+    }
+
+    // Для блокирующего движка: ждём своей очереди и выполняем проверку в текущем потоке
+    public <T> T call(InetAddress address, Server server, Supplier<T> probe) {
+
+        if (!enabled) {
+            return probe.get();
+        }
+
+        HostState host = hosts.computeIfAbsent(address, a -> new HostState());
+
+        host.acquire(server).join();
+        try {
+            return probe.get();
+        } finally {
+            host.release();
+        }
+    }
+
+    private final class HostState {
+
+        private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        // Лимиты, заданные серверами на этом адресе
+        private final Map<UUID, Server> overrides = new HashMap<>();
+
+        private int inFlight;
+
+        private double tokens = burst;
+
+        private long lastRefill = System.nanoTime();
+
+        private boolean refillScheduled;
+
+        private CompletableFuture<Void> acquire(Server server) {
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            synchronized (this) {
+                if (server.getServerId() != null) {
+                    overrides.put(server.getServerId(), server);
+                }
+                waiters.addLast(waiter);
+            }
+            dispatch();
+            return waiter;
+        }
+
+        private void forget(CompletableFuture<Void> waiter) {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        }
+
+        private void release() {
+            synchronized (this) {
+                inFlight--;
+            }
+            dispatch();
+        }
+
+        // Будим ожидающих вне блокировки, чтобы проверка не стартовала под монитором
+        private void dispatch() {
+            List<CompletableFuture<Void>> ready = new ArrayList<>();
+            synchronized (this) {
+                refill();
+                int concurrency = effectiveMaxConcurrent();
+                while (!waiters.isEmpty() && inFlight < concurrency && tokens >= 1) {
+                    CompletableFuture<Void> waiter = waiters.pollFirst();
+                    if (waiter.isDone()) {
+                        continue;
+                    }
+                    tokens--;
+                    inFlight++;
+                    ready.add(waiter);
+                }
+                if (!waiters.isEmpty() && inFlight < concurrency && !refillScheduled) {
+                    refillScheduled = true;
+                    long waitNanos = (long) Math.ceil((1 - tokens) / effectiveRate() * TimeUnit.SECONDS.toNanos(1));
+                    refillScheduler.schedule(() -> {
+                        synchronized (this) {
+                            refillScheduled = false;
+                        }
+                        dispatch();
+                    }, Math.max(1, waitNanos), TimeUnit.NANOSECONDS);
+                }
+            }
+            // Ожидание, отменённое между выдачей места и запуском, место возвращает
+            for (CompletableFuture<Void> waiter : ready) {
+                if (!waiter.complete(null)) {
+                    release();
+                }
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            double rate = effectiveRate();
+            tokens = Math.min(effectiveBurst(), tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+        }
+
+        private int effectiveMaxConcurrent() {
+            int result = maxConcurrent;
+            for (Server server : overrides.values()) {
+                if (server.getHostMaxConcurrent() != null) {
+                    result = Math.min(result, server.getHostMaxConcurrent());
+                }
+            }
+            return Math.max(1, result);
+        }
+
+        private double effectiveRate() {
+            double result = ratePerSecond;
+            for (Server server : overrides.values()) {
+                if (server.getHostRatePerSecond() != null) {
+                    result = Math.min(result, server.getHostRatePerSecond());
+                }
+            }
+            return Math.max(0.01, result);
+        }
+
+        // Если сервер снизил частоту, запас токенов не должен позволять больше, чем его лимит за секунду
+        private double effectiveBurst() {
+            double rate = effectiveRate();
+            return rate < ratePerSecond ? Math.max(1, Math.min(burst, Math.ceil(rate))) : burst;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.entity.Server;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Общая проверка на сервер: если сервер уже проверяется (общим расписанием, отдельным расписанием
+ * или запросом по url/имени), новый вызов не запускает вторую проверку, а получает тот же результат.
+ * Успешный результат ещё freshnessMillis отдаётся повторным вызовам. Каждый вызов получает свою копию ответа.
+ * Общая проверка отменяется, только когда её отменили все асинхронные вызовы, которые её ждут.
+ */
+@Component
+public class InFlightProbeRegistry {
+
+    @Value("${probe.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${probe.dedup.freshnessMillis:1000}")
+    private long freshnessMillis;
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+
+        private final CompletableFuture<ServerStatusResponse> future = new CompletableFuture<>();
+
+        // Вызовы, которые ждут проверку; блокирующий запуск не отменяется и держит её всегда
+        private final AtomicInteger subscribers = new AtomicInteger();
+
+        private volatile CompletableFuture<ServerStatusResponse> started;
+
+        private volatile long completedAtNanos;
+
+        private CompletableFuture<ServerStatusResponse> subscribe() {
+            subscribers.incrementAndGet();
+            CompletableFuture<ServerStatusResponse> copy = future.thenApply(InFlightProbeRegistry::copyOf);
+            copy.whenComplete((response, e) -> {
+                if (copy.isCancelled() && subscribers.decrementAndGet() == 0) {
+                    CompletableFuture<ServerStatusResponse> probe = started;
+                    if (probe != null) {
+                        probe.cancel(true);
+                    }
+                }
+            });
+            return copy;
+        }
+    }
+
+    /**
+     * Асинхронная проверка: probe запускается, только если для сервера нет текущей или свежей проверки.
+     */
+    public CompletableFuture<ServerStatusResponse> execute(Server server, Supplier<CompletableFuture<ServerStatusResponse>> probe) {
+
+        if (!enabled) {
+            return probe.get();
+        }
+
+        Entry entry = new Entry();
+        Entry shared = register(keyOf(server), entry);
+        if (shared != null) {
+            return shared.subscribe();
+        }
+
+        CompletableFuture<ServerStatusResponse> started;
+        try {
+            started = probe.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        entry.started = started;
+        started.whenComplete((response, e) -> complete(server, entry, response, e));
+
+        return entry.subscribe();
+    }
+
+    /**
+     * Блокирующая проверка: выполняется в текущем потоке, а если сервер уже проверяется - ждём её результата.
+     */
+    public ServerStatusResponse call(Server server, Supplier<ServerStatusResponse> probe) {
+
+        if (!enabled) {
+            return probe.get();
+        }
+
+        Entry entry = new Entry();
+        entry.subscribers.incrementAndGet();
+        Entry shared = register(keyOf(server), entry);
+        if (shared != null) {
+            shared.subscribers.incrementAndGet();
+            try {
+                return copyOf(shared.future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            ServerStatusResponse response = probe.get();
+            complete(server, entry, response, null);
+            return copyOf(response);
+        } catch (RuntimeException e) {
+            complete(server, entry, null, e);
+            throw e;
+        }
+    }
+
+    // null - зарегистрирована новая проверка, иначе - текущая или свежая проверка, которую нужно разделить
+    private Entry register(Object key, Entry entry) {
+
+        Entry[] shared = new Entry[1];
+        entries.compute(key, (k, existing) -> {
+            if (existing != null && (!existing.future.isDone() || isFresh(existing))) {
+                shared[0] = existing;
+                return existing;
+            }
+            return entry;
+        });
+        return shared[0];
+    }
+
+    private void complete(Server server, Entry entry, ServerStatusResponse response, Throwable e) {
+
+        if (e != null) {
+            // Ошибку не держим: следующий вызов проверит сервер заново
+            entries.remove(keyOf(server), entry);
+            entry.future.completeExceptionally(e);
+            return;
+        }
+        entry.completedAtNanos = System.nanoTime();
+        entry.future.complete(response);
+    }
+
+    private boolean isFresh(Entry entry) {
+        return !entry.future.isCompletedExceptionally()
+                && System.nanoTime() - entry.completedAtNanos < TimeUnit.MILLISECONDS.toNanos(freshnessMillis);
+    }
+
+    private static Object keyOf(Server server) {
+        return server.getServerId() != null ? server.getServerId() : server.getServerUrl();
+    }
+
+    private static ServerStatusResponse copyOf(ServerStatusResponse response) {
+        return response.toBuilder().build();
+    }
+}
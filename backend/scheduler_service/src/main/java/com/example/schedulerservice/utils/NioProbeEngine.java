@@ -0,0 +1,210 @@
+package com.example.schedulerservice.utils;
+
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Неблокирующий движок проверок: TCP-соединения мультиплексируются на нескольких
+ * селекторных потоках, поэтому ни один поток не ждёт ответа от конкретного сервера.
+ */
+@Slf4j
+@Component
+public class NioProbeEngine {
+
+    @Value("${probe.nio.selectorThreads:2}")
+    private int selectorThreads;
+
+    private SelectorLoop[] loops;
+
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    @PostConstruct
+    public void start() throws IOException {
+
+        loops = new SelectorLoop[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++) {
+            loops[i] = new SelectorLoop(Selector.open());
+            Thread thread = new Thread(loops[i], "probe-selector-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        log.info("NIO probe engine started with {} selector threads", selectorThreads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (SelectorLoop loop : loops) {
+            loop.close();
+        }
+    }
+
+    /**
+     * Неблокирующий connect. Результат - время установления соединения в наносекундах.
+     * Отмена результата закрывает соединение.
+     */
+    public CompletableFuture<Long> connect(InetAddress address, int port, int timeout) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        long start = System.nanoTime();
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(address, port))) {
+                closeQuietly(channel);
+                future.complete(System.nanoTime() - start);
+                return future;
+            }
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+            loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)]
+                    .submit(new PendingConnect(channel, future, start, deadline));
+            // Отменённая проверка закрывает сокет сразу, не дожидаясь таймаута; ключ снимется на следующем select
+            SocketChannel pending = channel;
+            future.whenComplete((nanos, e) -> {
+                if (future.isCancelled()) {
+                    closeQuietly(pending);
+                }
+            });
+        } catch (IOException e) {
+            closeQuietly(channel);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // канал уже не нужен
+        }
+    }
+
+    private record PendingConnect(SocketChannel channel, CompletableFuture<Long> future, long start, long deadline) {
+    }
+
+    private static final class SelectorLoop implements Runnable {
+
+        private final Selector selector;
+
+        private final Queue<PendingConnect> pending = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean running = true;
+
+        private SelectorLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        private void submit(PendingConnect connect) {
+            pending.add(connect);
+            selector.wakeup();
+        }
+
+        private void close() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            long waitMillis = 0;
+            while (running) {
+                try {
+                    selector.select(waitMillis);
+                    registerPending();
+                    processSelected();
+                    waitMillis = expireTimedOut();
+                } catch (ClosedSelectorException e) {
+                    return;
+                } catch (IOException e) {
+                    log.error("Probe selector failure: {}", e.getMessage(), e);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                fail(key, new IOException("Probe engine stopped"));
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // останавливаемся
+            }
+        }
+
+        private void registerPending() {
+            PendingConnect connect;
+            while ((connect = pending.poll()) != null) {
+                try {
+                    connect.channel().register(selector, SelectionKey.OP_CONNECT, connect);
+                } catch (IOException e) {
+                    closeQuietly(connect.channel());
+                    connect.future().completeExceptionally(e);
+                }
+            }
+        }
+
+        private void processSelected() {
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                PendingConnect connect = (PendingConnect) key.attachment();
+                try {
+                    if (connect.channel().finishConnect()) {
+                        key.cancel();
+                        closeQuietly(connect.channel());
+                        connect.future().complete(System.nanoTime() - connect.start());
+                    }
+                } catch (IOException e) {
+                    fail(key, e);
+                }
+            }
+        }
+
+        // Закрывает просроченные соединения и возвращает время ожидания до ближайшего дедлайна
+        private long expireTimedOut() {
+            long now = System.nanoTime();
+            long nearest = Long.MAX_VALUE;
+            for (SelectionKey key : selector.keys()) {
+                PendingConnect connect = (PendingConnect) key.attachment();
+                long remaining = connect.deadline() - now;
+                if (remaining <= 0) {
+                    fail(key, new SocketTimeoutException("connect timed out"));
+                } else {
+                    nearest = Math.min(nearest, remaining);
+                }
+            }
+            if (nearest == Long.MAX_VALUE) {
+                return 0;
+            }
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nearest));
+        }
+
+        private static void fail(SelectionKey key, IOException e) {
+            PendingConnect connect = (PendingConnect) key.attachment();
+            key.cancel();
+            closeQuietly(connect.channel());
+            connect.future().completeExceptionally(e);
+        }
+    }
+}
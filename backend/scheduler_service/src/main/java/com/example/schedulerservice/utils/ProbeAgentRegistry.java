@@ -0,0 +1,147 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.exeption.ProbeAgentRequestException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Удалённые агенты проверок. Агент считается живым, пока запрашивает свои серверы или присылает
+ * результаты чаще ttlSeconds; время последнего обращения хранится в Redis, поэтому все экземпляры
+ * scheduler_service видят одних и тех же агентов. Серверы делятся между живыми агентами через
+ * consistent hashing, каждый сервер получают replicas разных агентов.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProbeAgentRegistry {
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${probe.agents.enabled:false}")
+    private boolean enabled;
+
+    @Value("${probe.agents.key:scheduler_service:probe_agents}")
+    private String agentsKey;
+
+    // Общий секрет агентов (заголовок X-Agent-Token), обязателен при включённых агентах
+    @Value("${probe.agents.token:}")
+    private String token;
+
+    @Value("${probe.agents.ttlSeconds:30}")
+    private long ttlSeconds;
+
+    @Value("${probe.agents.replicas:1}")
+    private int replicas;
+
+    @Value("${probe.agents.virtualNodes:128}")
+    private int virtualNodes;
+
+    // true - пока есть живые агенты, scheduler_service сам эти серверы не проверяет
+    @Value("${probe.agents.offload:false}")
+    private boolean offload;
+
+    private volatile TreeSet<String> members = new TreeSet<>();
+
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(List.of(), 0);
+
+    // Без токена любой, кто достучится до scheduler_service, мог бы слать результаты от имени агента
+    @PostConstruct
+    public void init() {
+        if (enabled && token.isBlank()) {
+            throw new IllegalStateException("probe.agents.enabled requires a non-empty probe.agents.token");
+        }
+    }
+
+    public void authorize(String agentId, String presentedToken) {
+
+        if (!enabled) {
+            throw new ProbeAgentRequestException(HttpStatus.NOT_FOUND, "Probe agents are disabled");
+        }
+        if (agentId == null || agentId.isBlank()) {
+            throw new ProbeAgentRequestException(HttpStatus.BAD_REQUEST, "Agent id is required");
+        }
+        if (presentedToken == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), presentedToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new ProbeAgentRequestException(HttpStatus.FORBIDDEN, "Invalid agent token");
+        }
+    }
+
+    public void heartbeat(String agentId) {
+        redisTemplate.opsForHash().put(agentsKey, agentId, String.valueOf(System.currentTimeMillis()));
+    }
+
+    public List<String> liveAgents() {
+        return List.copyOf(refresh());
+    }
+
+    /**
+     * Серверы агента по текущему составу: живые агенты перечитываются один раз на запрос,
+     * дальше проверка идёт по одному и тому же кольцу.
+     */
+    public Predicate<UUID> assignedTo(String agentId) {
+        refresh();
+        ConsistentHashRing currentRing = ring;
+        return serverId -> currentRing.ownersOf(String.valueOf(serverId), replicas).contains(agentId);
+    }
+
+    // Сколько агентов проверяет каждый сервер: replicas, но не больше, чем живых агентов
+    public int agentsPerServer() {
+        return enabled ? Math.min(refresh().size(), replicas) : 0;
+    }
+
+    /**
+     * Проверяют ли серверы агенты вместо scheduler_service: offload включён и есть хоть один живой агент.
+     */
+    public boolean isOffloading() {
+
+        if (!enabled || !offload) {
+            return false;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Без Redis про агентов ничего не известно - проверяем сами
+            log.warn("Failed to read probe agents: {}", e.getMessage());
+            return false;
+        }
+        return !ring.isEmpty();
+    }
+
+    // Перечитывает живых агентов, забытых удаляет; кольцо перестраивается только при смене состава
+    private TreeSet<String> refresh() {
+
+        long staleBefore = System.currentTimeMillis() - ttlSeconds * 1000;
+
+        TreeSet<String> current = new TreeSet<>();
+        for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(agentsKey).entrySet()) {
+            if (Long.parseLong(String.valueOf(entry.getValue())) >= staleBefore) {
+                current.add(String.valueOf(entry.getKey()));
+            } else {
+                redisTemplate.opsForHash().delete(agentsKey, entry.getKey());
+            }
+        }
+
+        synchronized (this) {
+            if (!current.equals(members)) {
+                log.info("Probe agents changed: {} -> {}", members, current);
+                ring = new ConsistentHashRing(current, virtualNodes);
+                members = current;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.entity.Server;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Предохранитель для серверов, которые лежат подолгу. После failureThreshold неудач подряд
+ * сервер перестаёт проверяться каждый раунд: пауза растёт вдвое с каждой новой неудачей
+ * от baseBackoff до maxBackoff. Когда пауза истекает, пропускается одна пробная проверка -
+ * успех сбрасывает счётчик, неудача продлевает паузу.
+ * Пока сервер на паузе, в раунд попадает его последний результат и время следующей проверки.
+ */
+@Slf4j
+@Component
+public class ProbeCircuitBreaker {
+
+    @Value("${probe.breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${probe.breaker.failureThreshold:3}")
+    private int failureThreshold;
+
+    @Value("${probe.breaker.baseBackoff:60}")
+    private long baseBackoff;
+
+    @Value("${probe.breaker.maxBackoff:3600}")
+    private long maxBackoff;
+
+    private final Map<UUID, BreakerState> states = new ConcurrentHashMap<>();
+
+    private static final class BreakerState {
+
+        private int consecutiveFailures;
+
+        private long openUntilMillis;
+
+        private boolean halfOpen;
+
+        private ServerStatusResponse lastResponse;
+    }
+
+    /**
+     * Последний результат сервера, если он сейчас на паузе, иначе null - сервер нужно проверить.
+     */
+    public ServerStatusResponse backedOffResponse(Server server) {
+
+        if (!enabled || server.getServerId() == null) {
+            return null;
+        }
+
+        BreakerState state = states.get(server.getServerId());
+        if (state == null) {
+            return null;
+        }
+
+        synchronized (state) {
+            if (state.consecutiveFailures < failureThreshold || state.lastResponse == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            if (now >= state.openUntilMillis && !state.halfOpen) {
+                state.halfOpen = true;
+                return null;
+            }
+            return state.lastResponse.toBuilder()
+                    .nextProbeAt(toLocalDateTime(state.openUntilMillis))
+                    .build();
+        }
+    }
+
+    // response == null - проверка завершилась ошибкой
+    public void record(Server server, ServerStatusResponse response) {
+
+        if (!enabled || server.getServerId() == null) {
+            return;
+        }
+
+        if (response != null && response.getServerStatus() == ServerStatus.ONLINE) {
+            BreakerState closed = states.remove(server.getServerId());
+            if (closed != null && closed.consecutiveFailures >= failureThreshold) {
+                log.info("{} is back, probing resumed", server.getServerUrl());
+            }
+            return;
+        }
+
+        BreakerState state = states.computeIfAbsent(server.getServerId(), id -> new BreakerState());
+
+        synchronized (state) {
+            state.halfOpen = false;
+            state.consecutiveFailures++;
+            if (response != null) {
+                state.lastResponse = response;
+            }
+            if (state.consecutiveFailures >= failureThreshold) {
+                int doublings = Math.min(30, state.consecutiveFailures - failureThreshold);
+                long backoffSeconds = Math.min(maxBackoff, baseBackoff << doublings);
+                state.openUntilMillis = System.currentTimeMillis() + backoffSeconds * 1000;
+                log.info("{} failed {} times in a row, next probe in {}s",
+                        server.getServerUrl(), state.consecutiveFailures, backoffSeconds);
+            }
+        }
+    }
+
+    // Пробная проверка не состоялась (отказ локальной очереди) - следующий раунд снова пропустит пробную
+    public void releaseHalfOpen(Server server) {
+
+        if (!enabled || server.getServerId() == null) {
+            return;
+        }
+
+        BreakerState state = states.get(server.getServerId());
+        if (state != null) {
+            synchronized (state) {
+                state.halfOpen = false;
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(epochMillis / 1000, 0, ZoneOffset.ofHours(3));
+    }
+}
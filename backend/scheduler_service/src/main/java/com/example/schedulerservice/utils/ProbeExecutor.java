@@ -0,0 +1,207 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.dto.response.ProbeExecutorStatsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Общий пул для проверок серверов. Живёт всё время работы сервиса, размер не зависит
+ * от числа ядер. Очередь ограничена: при переполнении задача отклоняется (RejectedExecutionException),
+ * а не выполняется в отправившем потоке - задачи сюда отправляют и потоки NIO, DNS и таймеров,
+ * блокирующая проверка в них остановила бы все остальные проверки. Отклонённая проверка раунда
+ * получает CONNECT_ERROR; call() из потока запроса выполняет отклонённую задачу сам.
+ * В режиме virtual (JDK 21+) каждая проверка получает свой виртуальный поток,
+ * число одновременных проверок ограничено virtualMaxInFlight, сверх него - тоже отказ.
+ * Сервис собирается и запускается на JDK 17 (pom, Dockerfile), там режим virtual всегда откатывается на platform.
+ * С движком nio через пул идут только замеры фаз и проверки по запросу, режим пула на раунды почти не влияет.
+ */
+@Slf4j
+@Component
+public class ProbeExecutor implements Executor {
+
+    @Value("${probe.executor.concurrency:64}")
+    private int concurrency;
+
+    @Value("${probe.executor.queueCapacity:1000}")
+    private int queueCapacity;
+
+    // platform - ограниченный пул потоков, virtual - виртуальный поток на каждую проверку
+    @Value("${probe.executor.mode:platform}")
+    private String mode;
+
+    @Value("${probe.executor.virtualMaxInFlight:10000}")
+    private int virtualMaxInFlight;
+
+    @Value("${probe.engine:nio}")
+    private String probeEngine;
+
+    private ThreadPoolExecutor executor;
+
+    private ExecutorService virtualExecutor;
+
+    private Semaphore virtualPermits;
+
+    private final AtomicInteger virtualActive = new AtomicInteger();
+
+    private final AtomicLong virtualCompleted = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            if ("nio".equalsIgnoreCase(probeEngine)) {
+                log.warn("probe.executor.mode=virtual has little effect with probe.engine=nio: round probes do not run on the probe executor");
+            }
+            virtualExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualExecutor != null) {
+                virtualPermits = new Semaphore(virtualMaxInFlight);
+                log.info("Probe executor started on virtual threads, max in flight {}", virtualMaxInFlight);
+                return;
+            }
+            log.warn("probe.executor.mode=virtual requested, but virtual threads need JDK 21+ and this JVM is {}: "
+                    + "falling back to platform probe executor ({} threads, queue {})",
+                    System.getProperty("java.version"), concurrency, queueCapacity);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "probe-executor-" + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        log.info("Probe executor started: concurrency {}, queue capacity {}", concurrency, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdownNow();
+        } else {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    // Сколько задач пул примет одновременно, не отклоняя: потоки плюс очередь, в режиме virtual - virtualMaxInFlight
+    public int capacity() {
+        return virtualExecutor != null ? virtualMaxInFlight : concurrency + queueCapacity;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (virtualExecutor == null) {
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                throw e;
+            }
+            return;
+        }
+        if (!virtualPermits.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Probe executor is saturated: " + virtualMaxInFlight + " probes in flight");
+        }
+        try {
+            virtualExecutor.execute(() -> {
+                virtualActive.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    virtualActive.decrementAndGet();
+                    virtualCompleted.incrementAndGet();
+                    virtualPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняет задачу на пуле проверок и ждёт результата. Исключения задачи пробрасываются как есть.
+     * Вызывается из потоков запросов: если пул переполнен, задача выполняется в вызывающем потоке.
+     */
+    public <T> T call(Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, this);
+        } catch (RejectedExecutionException e) {
+            return task.get();
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public ProbeExecutorStatsResponse getStats() {
+        if (virtualExecutor != null) {
+            return ProbeExecutorStatsResponse.builder()
+                    .mode("virtual")
+                    .concurrency(virtualMaxInFlight)
+                    .activeCount(virtualActive.get())
+                    .poolSize(virtualActive.get())
+                    .queueDepth(0)
+                    .queueCapacity(0)
+                    .completedTasks(virtualCompleted.get())
+                    .rejectedTasks(rejected.get())
+                    .build();
+        }
+        return ProbeExecutorStatsResponse.builder()
+                .mode("platform")
+                .concurrency(concurrency)
+                .activeCount(executor.getActiveCount())
+                .poolSize(executor.getPoolSize())
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(queueCapacity)
+                .completedTasks(executor.getCompletedTaskCount())
+                .rejectedTasks(rejected.get())
+                .build();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() появился в JDK 21, сервис собирается под 17
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
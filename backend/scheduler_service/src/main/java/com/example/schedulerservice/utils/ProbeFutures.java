@@ -0,0 +1,80 @@
+package com.example.schedulerservice.utils;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Отмена производного CompletableFuture не доходит до того, из которого он получен.
+ * Здесь цепочки проверок, отмена которых доходит до реальной работы: закрывает сокет,
+ * прерывает HTTP запрос, освобождает места в лимитах.
+ */
+public final class ProbeFutures {
+
+    private ProbeFutures() {
+    }
+
+    /**
+     * thenCompose, отмена результата которого отменяет и source, и уже запущенный следующий этап.
+     */
+    public static <T, U> CompletableFuture<U> thenComposeCancellable(CompletableFuture<T> source,
+                                                                     Function<? super T, ? extends CompletableFuture<U>> next) {
+
+        CompletableFuture<U> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<U>> started = new AtomicReference<>();
+
+        source.whenComplete((value, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<U> stage;
+            try {
+                stage = next.apply(value);
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(ex);
+                return;
+            }
+            started.set(stage);
+            if (result.isCancelled()) {
+                stage.cancel(true);
+                return;
+            }
+            stage.whenComplete((stageValue, stageError) -> {
+                if (stageError != null) {
+                    result.completeExceptionally(stageError);
+                } else {
+                    result.complete(stageValue);
+                }
+            });
+        });
+
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                source.cancel(true);
+                CompletableFuture<U> stage = started.get();
+                if (stage != null) {
+                    stage.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Отмена downstream отменяет upstream. Возвращает downstream.
+     */
+    public static <T> CompletableFuture<T> cancelling(CompletableFuture<T> downstream, CompletableFuture<?> upstream) {
+
+        downstream.whenComplete((value, e) -> {
+            if (downstream.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return downstream;
+    }
+}
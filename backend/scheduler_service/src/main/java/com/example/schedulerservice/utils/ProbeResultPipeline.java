@@ -0,0 +1,242 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.mapper.ServerStatusMapper;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.entity.ServerStatusLog;
+import com.example.schedulerservice.repository.ServerRepositoryLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Результаты раунда обрабатываются по мере готовности, а не после последней проверки.
+ * Готовые результаты собираются в пачки (batchSize или раз в flushMillis), и каждая пачка
+ * проходит этапы: запись в лог, отправка по WebSocket, оценка оповещений.
+ * Пачки обрабатываются одним потоком по порядку, поэтому этапы не обгоняют друг друга.
+ * Сами оповещения (Telegram, почта) доставляются отдельным потоком тоже по порядку:
+ * медленная доставка не задерживает запись и отправку следующих пачек.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProbeResultPipeline {
+
+    private final ServerStatusMapper serverStatusMapper;
+    private final ServerRepositoryLog serverRepositoryLog;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ServerAlert serverAlert;
+    private final SchedulerLeaderElection leaderElection;
+    private final StatusQuorum statusQuorum;
+
+    @Value("${scheduledTasks.pipeline.batchSize:50}")
+    private int batchSize;
+
+    @Value("${scheduledTasks.pipeline.flushMillis:200}")
+    private long flushMillis;
+
+    private static final String DESTINATION = "/status-of-servers/server-status-updates";
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-result-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService alertExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-result-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        alertExecutor.shutdown();
+    }
+
+    /**
+     * Открывает поток результатов одного раунда. alertSink получает серверы, по которым нужно оповещение.
+     * fencingToken > 0 - раунд лидера: пачки применяются, только пока экземпляр держит этот токен.
+     */
+    public RoundStream open(long fencingToken, Consumer<List<ServerStatusLog>> alertSink) {
+        return new RoundStream(fencingToken, alertSink, false);
+    }
+
+    public RoundStream open(Consumer<List<ServerStatusLog>> alertSink) {
+        return open(0, alertSink);
+    }
+
+    /**
+     * Поток результатов агентов: их принимает лидер, но без fencing - пачка записывается и отправляется,
+     * даже если лидерство потеряно во время приёма (агент её уже не повторит).
+     * Оповещения оцениваются, только пока экземпляр лидер: проверка на каждую пачку.
+     */
+    public RoundStream openLeaderAlerting(Consumer<List<ServerStatusLog>> alertSink) {
+        return new RoundStream(0, alertSink, true);
+    }
+
+    public final class RoundStream implements Consumer<ServerStatusResponse> {
+
+        private final long fencingToken;
+
+        private final Consumer<List<ServerStatusLog>> alertSink;
+
+        private final boolean alertsOnLeaderOnly;
+
+        private final ConcurrentLinkedQueue<ServerStatusResponse> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private final ScheduledFuture<?> periodicFlush;
+
+        // accept под read lock, close под write lock: после close ни один результат не застрянет в pending
+        private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+        private boolean closed;
+
+        private RoundStream(long fencingToken, Consumer<List<ServerStatusLog>> alertSink, boolean alertsOnLeaderOnly) {
+            this.fencingToken = fencingToken;
+            this.alertSink = alertSink;
+            this.alertsOnLeaderOnly = alertsOnLeaderOnly;
+            this.periodicFlush = flushExecutor.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // С кворумом дальше идёт только итоговый статус - когда этот результат набрал кворум источников.
+        // Результаты серверов на паузе предохранителя не голосуют.
+        // Результат после close отбрасывается до голосования: опоздавший голос не меняет кворум
+        @Override
+        public void accept(ServerStatusResponse response) {
+            closeLock.readLock().lock();
+            try {
+                if (closed) {
+                    log.debug("{}: result after round close dropped", response.getServerUrl());
+                    return;
+                }
+                if (response.getNextProbeAt() == null) {
+                    response = statusQuorum.vote(response);
+                    if (response == null) {
+                        return;
+                    }
+                }
+                pending.add(response);
+            } finally {
+                closeLock.readLock().unlock();
+            }
+            if (pendingCount.incrementAndGet() % batchSize == 0) {
+                flushExecutor.execute(this::flush);
+            }
+        }
+
+        // Сбрасывает остаток; future завершается, когда все результаты раунда записаны, отправлены
+        // и оценены на оповещения. Доставки оповещений future не ждёт
+        public CompletableFuture<Void> close() {
+            closeLock.writeLock().lock();
+            try {
+                closed = true;
+            } finally {
+                closeLock.writeLock().unlock();
+            }
+            periodicFlush.cancel(false);
+            return CompletableFuture.runAsync(this::flush, flushExecutor);
+        }
+
+        private void flush() {
+
+            List<ServerStatusResponse> batch = new ArrayList<>();
+            ServerStatusResponse response;
+            while ((response = pending.poll()) != null) {
+                batch.add(response);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            if (fencingToken > 0 && !leaderElection.holds(fencingToken)) {
+                log.warn("Scheduler leadership lost (token {}), {} probe results dropped", fencingToken, batch.size());
+                return;
+            }
+
+            List<ServerStatusLog> serverStatusLogs = serverStatusMapper.serverStatusResponseListToServerStatusLogList(batch);
+
+            try {
+                persist(batch, serverStatusLogs);
+            } catch (RuntimeException e) {
+                log.error("Failed to save probe results: {}", e.getMessage(), e);
+            }
+
+            try {
+                messagingTemplate.convertAndSend(DESTINATION, batch); // отправляем событие клиенту
+            } catch (RuntimeException e) {
+                log.error("Failed to publish probe results: {}", e.getMessage(), e);
+            }
+
+            if (alertsOnLeaderOnly && !leaderElection.isLeader()) {
+                return;
+            }
+
+            try {
+                List<ServerStatusLog> serverAlertList = serverAlert.notificationSendForProbed(serverStatusLogs);
+                if (!serverAlertList.isEmpty()) {
+                    deliverAlerts(serverAlertList);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to evaluate alerts: {}", e.getMessage(), e);
+            }
+        }
+
+        private void deliverAlerts(List<ServerStatusLog> serverAlertList) {
+            try {
+                alertExecutor.execute(() -> {
+                    try {
+                        alertSink.accept(serverAlertList);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to send alerts: {}", e.getMessage(), e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Alert delivery stopped, {} alerts dropped", serverAlertList.size());
+            }
+        }
+
+        // Результаты серверов на паузе предохранителя в лог повторно не пишутся.
+        // Время записи - время проверки, если оно известно (у буферизованных результатов агента оно раньше приёма)
+        private void persist(List<ServerStatusResponse> batch, List<ServerStatusLog> serverStatusLogs) {
+
+            LocalDateTime now = LocalDateTime.now().atOffset(ZoneOffset.ofHours(3)).toLocalDateTime();
+
+            List<ServerStatusLog> probed = new ArrayList<>(serverStatusLogs.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).getNextProbeAt() == null) {
+                    ServerStatusLog serverStatusLog = serverStatusLogs.get(i);
+                    serverStatusLog.setServerId(null);
+                    if (serverStatusLog.getLocalDateTime() == null) {
+                        serverStatusLog.setLocalDateTime(now);
+                    }
+                    probed.add(serverStatusLog);
+                }
+            }
+            serverRepositoryLog.saveAll(probed);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.schedulerservice.utils;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Хэшированное колесо таймеров для проверок с индивидуальным интервалом.
+ * Каждый тик advance() отдаёт только те серверы, чья очередь подошла в текущем слоте,
+ * и сразу ставит их на следующий круг через их интервал.
+ */
+public class ProbeTimingWheel {
+
+    private final long tickMillis;
+
+    private final List<Set<WheelEntry>> slots;
+
+    private final Map<UUID, WheelEntry> entries = new HashMap<>();
+
+    private long currentTick;
+
+    private static final class WheelEntry {
+
+        private final UUID serverId;
+
+        private final long intervalTicks;
+
+        private long remainingRounds;
+
+        private int slot;
+
+        private WheelEntry(UUID serverId, long intervalTicks) {
+            this.serverId = serverId;
+            this.intervalTicks = intervalTicks;
+        }
+    }
+
+    public ProbeTimingWheel(long tickMillis, int ticksPerWheel) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(ticksPerWheel);
+        for (int i = 0; i < ticksPerWheel; i++) {
+            slots.add(new HashSet<>());
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public synchronized void schedule(UUID serverId, long intervalMillis, long initialDelayMillis) {
+        remove(serverId);
+        WheelEntry entry = new WheelEntry(serverId, toTicks(intervalMillis));
+        entries.put(serverId, entry);
+        place(entry, toTicks(initialDelayMillis));
+    }
+
+    public synchronized void remove(UUID serverId) {
+        WheelEntry entry = entries.remove(serverId);
+        if (entry != null) {
+            slots.get(entry.slot).remove(entry);
+        }
+    }
+
+    public synchronized boolean contains(UUID serverId) {
+        return entries.containsKey(serverId);
+    }
+
+    public synchronized long intervalMillisOf(UUID serverId) {
+        WheelEntry entry = entries.get(serverId);
+        return entry == null ? -1 : entry.intervalTicks * tickMillis;
+    }
+
+    public synchronized Set<UUID> scheduledServers() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Сдвигает колесо на один тик и возвращает серверы, которые пора проверить.
+     */
+    public synchronized List<UUID> advance() {
+        currentTick++;
+        Set<WheelEntry> slot = slots.get((int) (currentTick % slots.size()));
+
+        List<WheelEntry> due = new ArrayList<>();
+        for (WheelEntry entry : slot) {
+            if (entry.remainingRounds > 0) {
+                entry.remainingRounds--;
+            } else {
+                due.add(entry);
+            }
+        }
+
+        List<UUID> result = new ArrayList<>(due.size());
+        for (WheelEntry entry : due) {
+            slot.remove(entry);
+            place(entry, entry.intervalTicks);
+            result.add(entry.serverId);
+        }
+        return result;
+    }
+
+    /**
+     * Детерминированный сдвиг сервера внутри интервала, кратный тику: зависит только от serverId,
+     * поэтому после перезапуска или смены интервала сервер попадает в тот же слот.
+     */
+    public long spreadOffsetMillis(UUID serverId, long intervalMillis) {
+        long hash = (serverId.getMostSignificantBits() ^ serverId.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        long intervalTicks = Math.max(1, intervalMillis / tickMillis);
+        return Math.floorMod(hash ^ (hash >>> 32), intervalTicks) * tickMillis;
+    }
+
+    private void place(WheelEntry entry, long delayTicks) {
+        long target = currentTick + delayTicks;
+        entry.slot = (int) (target % slots.size());
+        entry.remainingRounds = (delayTicks - 1) / slots.size();
+        slots.get(entry.slot).add(entry);
+    }
+
+    private long toTicks(long millis) {
+        return Math.max(1, (millis + tickMillis - 1) / tickMillis);
+    }
+}
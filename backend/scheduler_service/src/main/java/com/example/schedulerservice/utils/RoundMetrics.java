@@ -0,0 +1,113 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.dto.response.RoundStatsResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики раундов проверок отдельно по каждому расписанию (имя RoundOverrunGuard: общий раунд
+ * scheduledTasks и каждая группа scheduledSingleTasks:имя): сколько раундов упёрлось в дедлайн
+ * и сколько проверок при этом отменено, сколько тиков пропущено или слито из-за незакончившихся раундов,
+ * задержка старта раунда относительно его тика (lag) и отставание тиков от идеального расписания (drift).
+ * Растущие lag и drift расписания - признак того, что его серверы перестали укладываться в интервал.
+ */
+@Component
+public class RoundMetrics {
+
+    private final Map<String, SchedulerMetrics> schedulers = new ConcurrentHashMap<>();
+
+    public SchedulerMetrics forScheduler(String scheduler) {
+        return schedulers.computeIfAbsent(scheduler, SchedulerMetrics::new);
+    }
+
+    public List<RoundStatsResponse> getStats() {
+        return schedulers.values().stream()
+                .map(SchedulerMetrics::getStats)
+                .sorted(Comparator.comparing(RoundStatsResponse::scheduler))
+                .toList();
+    }
+
+    public static final class SchedulerMetrics {
+
+        private final String scheduler;
+
+        private final AtomicLong rounds = new AtomicLong();
+
+        private final AtomicLong overruns = new AtomicLong();
+
+        private final AtomicLong cancelledProbes = new AtomicLong();
+
+        private final AtomicLong lastRoundMillis = new AtomicLong();
+
+        private final AtomicLong maxRoundMillis = new AtomicLong();
+
+        private final AtomicLong skippedTicks = new AtomicLong();
+
+        private final AtomicLong coalescedTicks = new AtomicLong();
+
+        private final AtomicLong lastLagMillis = new AtomicLong();
+
+        private final AtomicLong maxLagMillis = new AtomicLong();
+
+        private final AtomicLong lastDriftMillis = new AtomicLong();
+
+        private final AtomicLong maxDriftMillis = new AtomicLong();
+
+        private SchedulerMetrics(String scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        public void tickSkipped() {
+            skippedTicks.incrementAndGet();
+        }
+
+        public void tickCoalesced() {
+            coalescedTicks.incrementAndGet();
+        }
+
+        public void recordLag(long lagMillis) {
+            lastLagMillis.set(lagMillis);
+            maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+        }
+
+        public void recordDrift(long driftMillis) {
+            lastDriftMillis.set(driftMillis);
+            maxDriftMillis.accumulateAndGet(driftMillis, Math::max);
+        }
+
+        // Раунд упёрся в дедлайн, cancelled проверок отменено
+        public void roundOverrun(int cancelled) {
+            overruns.incrementAndGet();
+            cancelledProbes.addAndGet(cancelled);
+        }
+
+        public void roundFinished(long elapsedMillis) {
+            rounds.incrementAndGet();
+            lastRoundMillis.set(elapsedMillis);
+            maxRoundMillis.accumulateAndGet(elapsedMillis, Math::max);
+        }
+
+        public RoundStatsResponse getStats() {
+            return RoundStatsResponse.builder()
+                    .scheduler(scheduler)
+                    .rounds(rounds.get())
+                    .overruns(overruns.get())
+                    .cancelledProbes(cancelledProbes.get())
+                    .lastRoundMillis(lastRoundMillis.get())
+                    .maxRoundMillis(maxRoundMillis.get())
+                    .skippedTicks(skippedTicks.get())
+                    .coalescedTicks(coalescedTicks.get())
+                    .lastLagMillis(lastLagMillis.get())
+                    .maxLagMillis(maxLagMillis.get())
+                    .lastDriftMillis(lastDriftMillis.get())
+                    .maxDriftMillis(maxDriftMillis.get())
+                    .build();
+        }
+    }
+}
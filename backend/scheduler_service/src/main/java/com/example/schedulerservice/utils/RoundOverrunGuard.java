@@ -0,0 +1,139 @@
+package com.example.schedulerservice.utils;
+
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Что делать, если раунд не успел закончиться к следующему тику:
+ * skip - пропустить тик, coalesce - собрать все пропущенные тики в один догоняющий раунд,
+ * overlap - запускать раунды параллельно, но не больше maxOverlap, сверх этого - как coalesce.
+ * Тик только передаёт работу, сам раунд выполняется в executor, поэтому расписание тиков не сдвигается.
+ * Для каждого тика считается дрейф от идеального расписания, для каждого раунда - задержка старта
+ * и длительность; метрики пишутся под именем name.
+ */
+@Slf4j
+public class RoundOverrunGuard<T> {
+
+    public enum Policy {
+        SKIP,
+        COALESCE,
+        OVERLAP
+    }
+
+    private final String name;
+
+    private final Policy policy;
+
+    private final int maxOverlap;
+
+    private final long periodNanos;
+
+    private final Executor executor;
+
+    private final Consumer<List<T>> round;
+
+    private final RoundMetrics.SchedulerMetrics roundMetrics;
+
+    private final Set<T> pending = new LinkedHashSet<>();
+
+    private long pendingSinceNanos;
+
+    private int running;
+
+    private long firstTickNanos = -1;
+
+    private long tickCount;
+
+    public RoundOverrunGuard(String name, Policy policy, int maxOverlap, long periodMillis,
+                             Executor executor, Consumer<List<T>> round, RoundMetrics roundMetrics) {
+        this.name = name;
+        this.policy = policy;
+        this.maxOverlap = policy == Policy.OVERLAP ? Math.max(1, maxOverlap) : 1;
+        this.periodNanos = periodMillis * 1_000_000L;
+        this.executor = executor;
+        this.round = round;
+        this.roundMetrics = roundMetrics.forScheduler(name);
+    }
+
+    public static Policy policyOf(String value) {
+        return Policy.valueOf(value.trim().toUpperCase());
+    }
+
+    /**
+     * Вызывается на каждом тике расписания с работой этого тика.
+     */
+    public synchronized void tick(List<T> work) {
+
+        long now = System.nanoTime();
+        if (firstTickNanos < 0) {
+            firstTickNanos = now;
+        }
+        long driftNanos = now - (firstTickNanos + tickCount * periodNanos);
+        tickCount++;
+        roundMetrics.recordDrift(Math.max(0, driftNanos) / 1_000_000L);
+
+        if (work.isEmpty() && pending.isEmpty()) {
+            return;
+        }
+
+        if (running < maxOverlap) {
+            start(merge(work), now);
+            return;
+        }
+
+        if (policy == Policy.SKIP) {
+            roundMetrics.tickSkipped();
+            log.warn("{}: previous round still running, tick skipped", name);
+            return;
+        }
+
+        if (pending.isEmpty()) {
+            pendingSinceNanos = now;
+        }
+        pending.addAll(work);
+        roundMetrics.tickCoalesced();
+    }
+
+    private List<T> merge(List<T> work) {
+        if (pending.isEmpty()) {
+            return work;
+        }
+        Set<T> merged = new LinkedHashSet<>(pending);
+        merged.addAll(work);
+        pending.clear();
+        return new ArrayList<>(merged);
+    }
+
+    private void start(List<T> work, long scheduledNanos) {
+        running++;
+        executor.execute(() -> {
+            long startNanos = System.nanoTime();
+            roundMetrics.recordLag((startNanos - scheduledNanos) / 1_000_000L);
+            try {
+                round.accept(work);
+            } catch (RuntimeException e) {
+                log.error("{}: round failed: {}", name, e.getMessage(), e);
+            } finally {
+                roundMetrics.roundFinished((System.nanoTime() - startNanos) / 1_000_000L);
+                finished();
+            }
+        });
+    }
+
+    // Раунд закончился: если за это время накопились пропущенные тики - сразу догоняем одним раундом
+    private synchronized void finished() {
+        running--;
+        if (!pending.isEmpty() && running < maxOverlap) {
+            List<T> catchUp = new ArrayList<>(pending);
+            pending.clear();
+            start(catchUp, pendingSinceNanos);
+        }
+    }
+}
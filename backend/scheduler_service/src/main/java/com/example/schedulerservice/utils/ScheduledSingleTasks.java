@@ -2,12 +2,14 @@ package com.example.schedulerservice.utils;
 
 
 import com.example.schedulerservice.config.UpdateConsumer;
+import com.example.schedulerservice.exeption.ScheduleGroupException;
+import com.example.schedulerservice.exeption.StorageDataNotFoundException;
 import com.example.schedulerservice.exeption.UnableSendMessageToClientException;
 import com.example.schedulerservice.model.dto.ServerStatusDtoList;
 import com.example.schedulerservice.model.entity.Server;
 import com.example.schedulerservice.service.ServerStatusChecker;
 import jakarta.annotation.PostConstruct;
-import lombok.Getter;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,101 +19,265 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
+/**
+ * Отдельные расписания для выбранных серверов. Групп может быть сколько угодно, у каждой свои серверы,
+ * период, таймаут и оповещения; проверки всех групп идут через общий движок и пул.
+ * Методы без имени группы работают с группой default - прежним единственным расписанием.
+ */
 @Slf4j
 @Service
-@Getter
 @RequiredArgsConstructor
 public class ScheduledSingleTasks {
 
     private final TaskScheduler taskScheduler;
     private final ServerStatusChecker serverStatusChecker;
     private final SimpMessagingTemplate messagingTemplate;
-
-    private ScheduledFuture<?> scheduledSingleTask;
+    private final RoundMetrics roundMetrics;
+    private final SchedulerLeaderElection leaderElection;
 
     private final UpdateConsumer updateConsumer;
 
+    public static final String DEFAULT_GROUP = "default";
+
+    private static final String DESTINATION = "/status-of-servers/single-server-status-updates";
+
+    // Имя группы входит в адрес STOMP, поэтому только буквы, цифры, - и _
+    private static final Pattern GROUP_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
     @Value("${scheduledTasks.enabledSchedule}")
-    private volatile boolean enabledSingleSchedule;
+    private boolean enabledSingleSchedule;
 
     @Value("${scheduledTasks.enabledScheduleNotification}")
-    private volatile boolean enabledSingleScheduleNotification;
+    private boolean enabledSingleScheduleNotification;
 
     @Value("${scheduledTasks.timeout}")
-    private volatile int singleTaskTimeout;
+    private int singleTaskTimeout;
 
-    private final AtomicInteger singleFixedRate = new AtomicInteger(60); // начальное значение
+    // skip | coalesce | overlap - что делать с тиком, пока предыдущий раунд ещё идёт
+    @Value("${scheduledTasks.singleOverrun.policy:coalesce}")
+    private String overrunPolicy;
 
-    private volatile List<Server> serverIdList;
+    @Value("${scheduledTasks.singleOverrun.maxOverlap:2}")
+    private int maxOverlap;
+
+    private final Map<String, SingleScheduleGroup> groups = new ConcurrentHashMap<>();
+
+    private final ExecutorService roundExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "probe-single-round");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @PostConstruct
     public void init() {
-        scheduleSingleTask();
+        SingleScheduleGroup defaultGroup = new SingleScheduleGroup(DEFAULT_GROUP, 60, singleTaskTimeout,
+                enabledSingleSchedule, enabledSingleScheduleNotification); // начальное значение периода - 60 сек
+        groups.put(DEFAULT_GROUP, defaultGroup);
+        scheduleGroup(defaultGroup);
     }
 
-    public synchronized void setSingleScheduleNotificationOn() {
-        this.enabledSingleScheduleNotification = true;
+    @PreDestroy
+    public void shutdown() {
+        groups.values().forEach(this::cancelGroup);
+        roundExecutor.shutdownNow();
+    }
 
+    public boolean isEnabledSingleSchedule() {
+        return getGroup(DEFAULT_GROUP).isEnabled();
     }
-    public synchronized void setSingleScheduleNotificationOff() {
-        this.enabledSingleScheduleNotification = false;
 
+    public AtomicInteger getSingleFixedRate() {
+        return getGroup(DEFAULT_GROUP).getFixedRate();
     }
 
-    public synchronized void setServerId(List<Server> serverIdList) {
-        this.serverIdList = serverIdList;
-        cancelSingleTask();
-        scheduleSingleTask();
+    public int getSingleTaskTimeout() {
+        return getGroup(DEFAULT_GROUP).getTimeout();
     }
 
-    public synchronized void setSingleTaskTimeout(int nanoOfSecond) {
-        this.singleTaskTimeout = nanoOfSecond;
-        cancelSingleTask();
-        scheduleSingleTask();
+    public void setSingleScheduleNotificationOn() {
+        setNotification(DEFAULT_GROUP, true);
     }
 
-    public synchronized void setSingleFixedRate(int seconds) {
-        this.singleFixedRate.set(seconds);
-        cancelSingleTask();
-        scheduleSingleTask();
+    public void setSingleScheduleNotificationOff() {
+        setNotification(DEFAULT_GROUP, false);
     }
 
-    public synchronized void setSingleScheduleOn() {
-        this.enabledSingleSchedule = true;
-        scheduleSingleTask();
+    public void setServerId(List<Server> serverIdList) {
+        setServers(DEFAULT_GROUP, serverIdList);
     }
 
-    public synchronized void setSingleScheduleOF() {
-        this.enabledSingleSchedule = false;
-        cancelSingleTask();
+    public void setSingleTaskTimeout(int nanoOfSecond) {
+        setTimeout(DEFAULT_GROUP, nanoOfSecond);
     }
 
-    private void scheduleSingleTask() {
-        if (enabledSingleSchedule) {
-            this.scheduledSingleTask = taskScheduler.scheduleAtFixedRate(() -> {
-                try {
-                    ServerStatusDtoList result = serverStatusChecker.getStatusForSingleServer(serverIdList, singleTaskTimeout);
-                    messagingTemplate.convertAndSend("/status-of-servers/single-server-status-updates", result); // отправляем событие клиенту
+    public void setSingleFixedRate(int seconds) {
+        setFixedRate(DEFAULT_GROUP, seconds);
+    }
+
+    public void setSingleScheduleOn() {
+        setEnabled(DEFAULT_GROUP, true);
+    }
+
+    public void setSingleScheduleOF() {
+        setEnabled(DEFAULT_GROUP, false);
+    }
+
+    public List<SingleScheduleGroup> getGroups() {
+        return new ArrayList<>(groups.values());
+    }
+
+    public SingleScheduleGroup getGroup(String name) {
+        SingleScheduleGroup group = groups.get(name);
+        if (group == null) {
+            throw new StorageDataNotFoundException("No schedule group with this name: " + name);
+        }
+        return group;
+    }
+
+    // Создаёт группу или заменяет существующую с тем же именем. Всё проверяется до того, как старое расписание снято
+    public synchronized SingleScheduleGroup putGroup(String name, List<Server> servers, Integer fixedRate, Integer timeout,
+                                                     Boolean enabled, Boolean notification) {
+
+        if (name == null || !GROUP_NAME.matcher(name).matches()) {
+            throw new ScheduleGroupException(HttpStatus.BAD_REQUEST,
+                    "Schedule group name must be 1 to 64 letters, digits, - or _: " + name);
+        }
+        if (fixedRate != null) {
+            validateFixedRate(fixedRate);
+        }
+        if (timeout != null) {
+            validateTimeout(timeout);
+        }
+
+        SingleScheduleGroup previous = groups.get(name);
+        if (previous != null) {
+            cancelGroup(previous);
+        }
+
+        SingleScheduleGroup group = new SingleScheduleGroup(name,
+                fixedRate != null ? fixedRate : 60,
+                timeout != null ? timeout : singleTaskTimeout,
+                enabled != null ? enabled : true,
+                notification != null ? notification : enabledSingleScheduleNotification);
+        group.setServers(servers != null ? servers : List.of());
+        if (previous != null) {
+            group.setServerAlert(previous.getServerAlert());
+        }
+
+        groups.put(name, group);
+        scheduleGroup(group);
+
+        return group;
+    }
 
-                    if (enabledSingleScheduleNotification && !result.serverAlertList().isEmpty()){
-                        updateConsumer.sendMessage(result.serverAlertList(),singleFixedRate,singleTaskTimeout);
-                    }
+    public synchronized void removeGroup(String name) {
+        if (DEFAULT_GROUP.equals(name)) {
+            throw new ScheduleGroupException(HttpStatus.CONFLICT, "Default schedule group can not be removed");
+        }
+        cancelGroup(getGroup(name));
+        groups.remove(name);
+    }
+
+    public synchronized void setServers(String name, List<Server> servers) {
+        SingleScheduleGroup group = getGroup(name);
+        group.setServers(servers);
+        cancelGroup(group);
+        scheduleGroup(group);
+    }
+
+    public synchronized void setTimeout(String name, int nanoOfSecond) {
+        validateTimeout(nanoOfSecond);
+        SingleScheduleGroup group = getGroup(name);
+        group.setTimeout(nanoOfSecond);
+        cancelGroup(group);
+        scheduleGroup(group);
+    }
+
+    public synchronized void setFixedRate(String name, int seconds) {
+        validateFixedRate(seconds);
+        SingleScheduleGroup group = getGroup(name);
+        group.getFixedRate().set(seconds);
+        cancelGroup(group);
+        scheduleGroup(group);
+    }
+
+    public synchronized void setEnabled(String name, boolean enabled) {
+        SingleScheduleGroup group = getGroup(name);
+        group.setEnabled(enabled);
+        cancelGroup(group);
+        scheduleGroup(group);
+    }
+
+    public void setNotification(String name, boolean notification) {
+        getGroup(name).setNotification(notification);
+    }
+
+    private static void validateFixedRate(int seconds) {
+        if (seconds <= 0) {
+            throw new ScheduleGroupException(HttpStatus.BAD_REQUEST, "Schedule group rate must be positive: " + seconds);
+        }
+    }
+
+    private static void validateTimeout(int timeout) {
+        if (timeout <= 0) {
+            throw new ScheduleGroupException(HttpStatus.BAD_REQUEST, "Schedule group timeout must be positive: " + timeout);
+        }
+    }
+
+    private void scheduleGroup(SingleScheduleGroup group) {
+        if (group.isEnabled()) {
+            RoundOverrunGuard<Server> overrunGuard = new RoundOverrunGuard<>("scheduledSingleTasks:" + group.getName(),
+                    RoundOverrunGuard.policyOf(overrunPolicy), maxOverlap, group.getFixedRate().get() * 1000L,
+                    roundExecutor, servers -> runSingleRound(group, servers), roundMetrics);
+            group.setScheduledTask(taskScheduler.scheduleAtFixedRate(() -> {
+                try {
+                    // Группы не делятся между экземплярами, поэтому проверяются только на лидере
+                    List<Server> servers = leaderElection.isLeader() ? group.getServers() : null;
+                    overrunGuard.tick(servers != null ? servers : List.of());
                 } catch (RuntimeException e) {
 
                     log.error(e.getMessage(), e);
                     throw new UnableSendMessageToClientException(HttpStatus.FORBIDDEN, e.getMessage());
                 }
-            }, Duration.ofSeconds(singleFixedRate.get()));
+            }, Duration.ofSeconds(group.getFixedRate().get())));
+        }
+    }
+
+    private void runSingleRound(SingleScheduleGroup group, List<Server> servers) {
+
+        long fencingToken = leaderElection.getFencingToken();
+
+        ServerStatusDtoList result = serverStatusChecker.getStatusForServerGroup(servers, group.getTimeout(), group.getServerAlert());
+
+        // Пока шли проверки, лидерство могло перейти к другому экземпляру - тогда результат не рассылаем
+        if (!leaderElection.holds(fencingToken)) {
+            log.warn("{}: scheduler leadership lost, round results dropped", group.getName());
+            return;
+        }
+
+        // default - прежний адрес, остальные группы - с именем группы в конце
+        String destination = DEFAULT_GROUP.equals(group.getName()) ? DESTINATION : DESTINATION + "/" + group.getName();
+        messagingTemplate.convertAndSend(destination, result); // отправляем событие клиенту
+
+        if (group.isNotification() && !result.serverAlertList().isEmpty()){
+            updateConsumer.sendMessage(result.serverAlertList(), group.getFixedRate(), group.getTimeout());
         }
     }
 
-    private void cancelSingleTask() {
-        if (scheduledSingleTask != null && !scheduledSingleTask.isCancelled()) {
-            scheduledSingleTask.cancel(true);
+    private void cancelGroup(SingleScheduleGroup group) {
+        ScheduledFuture<?> scheduledTask = group.getScheduledTask();
+        if (scheduledTask != null && !scheduledTask.isCancelled()) {
+            scheduledTask.cancel(true);
         }
     }
 
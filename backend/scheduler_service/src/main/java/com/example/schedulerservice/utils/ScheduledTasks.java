@@ -3,20 +3,30 @@ package com.example.schedulerservice.utils;
 
 import com.example.schedulerservice.config.UpdateConsumer;
 import com.example.schedulerservice.exeption.UnableSendMessageToClientException;
-import com.example.schedulerservice.model.dto.ServerStatusDtoList;
+import com.example.schedulerservice.model.entity.Server;
+import com.example.schedulerservice.repository.ServerRepository;
 import com.example.schedulerservice.service.ServerStatusChecker;
 import com.example.schedulerservice.service.UserService;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -28,7 +38,13 @@ public class ScheduledTasks {
 
     private final TaskScheduler taskScheduler;
     private final ServerStatusChecker serverStatusChecker;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ServerRepository serverRepository;
+    private final ProbeResultPipeline probeResultPipeline;
+    private final RoundMetrics roundMetrics;
+    private final FleetShardSelector fleetShardSelector;
+    private final SchedulerLeaderElection leaderElection;
+    private final ProbeAgentRegistry probeAgentRegistry;
+    private final VantageProber vantageProber;
 
     private ScheduledFuture<?> scheduledTask;
 
@@ -45,13 +61,62 @@ public class ScheduledTasks {
 
     private final AtomicInteger fixedRate = new AtomicInteger(60); // начальное значение
 
+    // Имя общего раунда в логах и метриках раундов
+    private static final String SCHEDULER_NAME = "scheduledTasks";
+
+    // Дедлайн раунда = наименьший интервал среди серверов раунда * roundDeadlineFactor, но не меньше тика
+    @Value("${scheduledTasks.roundDeadlineFactor:0.9}")
+    private double roundDeadlineFactor;
+
+    // Шаг колеса таймеров - точность, с которой соблюдаются интервалы серверов
+    @Value("${scheduledTasks.wheel.tickMillis:1000}")
+    private long tickMillis;
+
+    @Value("${scheduledTasks.wheel.ticksPerWheel:512}")
+    private int ticksPerWheel;
+
+    // Как часто перечитывать список серверов и их интервалы
+    @Value("${scheduledTasks.wheel.refreshSeconds:30}")
+    private int refreshSeconds;
+
+    // Разносить первые проверки по интервалу, чтобы серверы с одинаковым интервалом не срабатывали в один тик
+    @Value("${scheduledTasks.wheel.spread:true}")
+    private boolean spread;
+
+    // skip | coalesce | overlap - что делать с тиком, пока предыдущий раунд ещё идёт
+    @Value("${scheduledTasks.overrun.policy:overlap}")
+    private String overrunPolicy;
+
+    @Value("${scheduledTasks.overrun.maxOverlap:4}")
+    private int maxOverlap;
+
+    private final ExecutorService roundExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "probe-round");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile RoundOverrunGuard<Server> overrunGuard;
+
+    private volatile ProbeTimingWheel timingWheel;
+
+    private volatile Map<UUID, Server> fleet = Map.of();
+
+    private long ticksSinceRefresh;
 
 
     @PostConstruct
     public void init() {
+        // Общий раунд - либо только на лидере (по умолчанию), либо по частям на всех экземплярах, но не оба сразу
+        log.info("Scheduled probe round mode: {}", fleetShardSelector.isEnabled() ? "sharded across instances" : "leader only");
         scheduleTask();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        roundExecutor.shutdownNow();
+    }
+
     public synchronized void setEnabledScheduleNotificationOn() {
         this.enabledScheduleNotification = true;
 
@@ -84,27 +149,138 @@ public class ScheduledTasks {
         cancelTask();
     }
 
+    /**
+     * Вместо полного обхода раз в fixedRate колесо тикает каждые tickMillis
+     * и отдаёт на проверку только те серверы, чей интервал истёк.
+     */
     private void scheduleTask() {
         if (enabledSchedule) {
-            this.scheduledTask = taskScheduler.scheduleAtFixedRate(() -> {
-                try {
-                    ServerStatusDtoList result = serverStatusChecker.allServersStatus(timeout);
+            timingWheel = new ProbeTimingWheel(tickMillis, ticksPerWheel);
+            overrunGuard = new RoundOverrunGuard<>(SCHEDULER_NAME, RoundOverrunGuard.policyOf(overrunPolicy), maxOverlap,
+                    tickMillis, roundExecutor, this::runRound, roundMetrics);
+            refreshFleet();
+            this.scheduledTask = taskScheduler.scheduleAtFixedRate(this::tick, Duration.ofMillis(tickMillis));
+        }
+    }
 
-                    messagingTemplate.convertAndSend("/status-of-servers/server-status-updates", result.serverStatusResponses());// отправляем событие клиенту
+    private void tick() {
+        try {
+            if (++ticksSinceRefresh * tickMillis >= refreshSeconds * 1000L) {
+                refreshFleet();
+            }
 
-//                 Если включено то посылаем сообщения в телеграмм
-                    if (enabledScheduleNotification && !result.serverAlertList().isEmpty()){
-                        updateConsumer.sendMessage(result.serverAlertList(),fixedRate,timeout);
-                   }
-                } catch (RuntimeException e) {
+            List<UUID> dueServerIds = timingWheel.advance();
 
-                    log.error(e.getMessage(), e);
-                    throw new UnableSendMessageToClientException(HttpStatus.FORBIDDEN,e.getMessage());
+            Map<UUID, Server> servers = fleet;
+            List<Server> dueServers = new ArrayList<>(dueServerIds.size());
+            for (UUID serverId : dueServerIds) {
+                Server server = servers.get(serverId);
+                if (server != null) {
+                    dueServers.add(server);
                 }
-            }, Duration.ofSeconds(fixedRate.get()));
+            }
+
+            // Без деления серверов общий раунд, а с ним запись и оповещения, идёт только на лидере;
+            // колесо крутится на всех экземплярах, чтобы новый лидер продолжил с того же места расписания
+            if (!fleetShardSelector.isEnabled() && !leaderElection.isLeader()) {
+                dueServers = List.of();
+            }
+
+            // Тик вызывается всегда, даже пустой - по нему считается дрейф расписания
+            overrunGuard.tick(dueServers);
+        } catch (RuntimeException e) {
+
+            log.error(e.getMessage(), e);
+            throw new UnableSendMessageToClientException(HttpStatus.FORBIDDEN,e.getMessage());
         }
     }
 
+    private void runRound(List<Server> dueServers) {
+
+        // Раунд лидера открывается под его fencing token: если лидерство уйдёт посреди раунда, остаток результатов отбрасывается
+        long fencingToken = fleetShardSelector.isEnabled() ? 0 : leaderElection.getFencingToken();
+
+        // Результаты пишутся, отправляются клиенту и оцениваются для оповещений по мере готовности
+        ProbeResultPipeline.RoundStream roundStream = probeResultPipeline.open(fencingToken, serverAlertList -> {
+//             Если включено то посылаем сообщения в телеграмм
+            if (enabledScheduleNotification) {
+                updateConsumer.sendMessage(serverAlertList, fixedRate, timeout);
+            }
+        });
+        long deadlineMillis = roundDeadlineMillis(dueServers);
+        try {
+            // Голоса с дополнительных локальных адресов для кворума идут параллельно с основными проверками
+            // К дедлайну раунда незавершённые голоса отменяются, чтобы не попасть в уже закрытый поток
+            CompletableFuture<Void> vantageVotes = vantageProber.probeAll(dueServers, timeout, deadlineMillis, roundStream);
+            serverStatusChecker.streamServers(SCHEDULER_NAME, dueServers, timeout, deadlineMillis, roundStream).join();
+            vantageVotes.join();
+        } finally {
+            roundStream.close().join();
+        }
+    }
+
+    // Синхронизирует колесо со списком серверов: новые добавляет, удалённые убирает, изменённые интервалы переставляет
+    private void refreshFleet() {
+
+        ticksSinceRefresh = 0;
+
+        // Экземпляров может быть несколько: каждый проверяет только свою часть серверов,
+        // при смене состава серверы, ушедшие к соседям, снимаются с колеса на этом же обновлении
+        fleetShardSelector.refresh();
+
+        // Пока серверы проверяют удалённые агенты, колесо пустое
+        Map<UUID, Server> servers = new HashMap<>();
+        for (Server server : probeAgentRegistry.isOffloading() ? List.<Server>of() : serverRepository.findAll()) {
+            if (fleetShardSelector.owns(server)) {
+                servers.put(server.getServerId(), server);
+            }
+        }
+
+        Set<UUID> scheduled = timingWheel.scheduledServers();
+        for (UUID serverId : scheduled) {
+            if (!servers.containsKey(serverId)) {
+                timingWheel.remove(serverId);
+            }
+        }
+
+        for (Server server : servers.values()) {
+            long intervalMillis = intervalMillisOf(server);
+            if (timingWheel.intervalMillisOf(server.getServerId()) != intervalMillis) {
+                timingWheel.schedule(server.getServerId(), intervalMillis, tickMillis + jitterMillis(server.getServerId(), intervalMillis));
+            }
+        }
+
+        fleet = servers;
+    }
+
+    private long jitterMillis(UUID serverId, long intervalMillis) {
+        return spread ? timingWheel.spreadOffsetMillis(serverId, intervalMillis) : 0;
+    }
+
+    /**
+     * Раунд - это серверы одного тика колеса, и каждый из них снова станет в очередь через свой интервал.
+     * Раунд должен закончиться раньше, чем подойдёт следующая проверка самого частого из его серверов.
+     */
+    private long roundDeadlineMillis(List<Server> dueServers) {
+        long shortestInterval = Long.MAX_VALUE;
+        for (Server server : dueServers) {
+            shortestInterval = Math.min(shortestInterval, intervalMillisOf(server));
+        }
+        if (shortestInterval == Long.MAX_VALUE) {
+            shortestInterval = intervalMillisOf(fixedRate.get());
+        }
+        return Math.max(tickMillis, (long) (shortestInterval * roundDeadlineFactor));
+    }
+
+    private long intervalMillisOf(Server server) {
+        return intervalMillisOf(server.getProbeInterval() != null ? server.getProbeInterval() : fixedRate.get());
+    }
+
+    private long intervalMillisOf(int seconds) {
+        long intervalTicks = Math.max(1, (seconds * 1000L + tickMillis - 1) / tickMillis);
+        return intervalTicks * tickMillis;
+    }
+
     private void cancelTask() {
         if (scheduledTask != null && !scheduledTask.isCancelled()) {
             scheduledTask.cancel(true);
@@ -0,0 +1,185 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.dto.response.LeaderStatusResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выбор лидера среди экземпляров scheduler_service через аренду в Redis.
+ * Лидер держит ключ с TTL leaseMillis и продлевает его каждые renewMillis; если лидер упал,
+ * ключ истекает и его забирает первый из остальных. При захвате аренды выдаётся fencing token -
+ * число, которое только растёт: результаты раунда с устаревшим токеном не записываются и не рассылаются.
+ * Своё лидерство экземпляр считает истекшим на renewMillis раньше TTL, чтобы бывший лидер
+ * остановился до того, как аренду получит другой.
+ * Fencing здесь best-effort: токен проверяет сам экземпляр перед записью пачки, база его не проверяет.
+ * Если между проверкой и записью экземпляр встанет дольше renewMillis (GC, пауза VM), одна пачка
+ * бывшего лидера может попасть в лог и оповещения вместе с результатами нового - это дубль, а не потеря.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SchedulerLeaderElection {
+
+    private final StringRedisTemplate redisTemplate;
+    private final FleetShardSelector fleetShardSelector;
+
+    @Value("${scheduledTasks.leader.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduledTasks.leader.key:scheduler_service:leader}")
+    private String leaseKey;
+
+    @Value("${scheduledTasks.leader.leaseMillis:10000}")
+    private long leaseMillis;
+
+    @Value("${scheduledTasks.leader.renewMillis:2000}")
+    private long renewMillis;
+
+    // Аренда свободна - забираем её с новым токеном, иначе 0
+    private static final DefaultRedisScript<Long> ACQUIRE = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end
+            local token = redis.call('INCR', KEYS[2])
+            redis.call('SET', KEYS[1], ARGV[1] .. '|' .. token, 'PX', ARGV[2])
+            return token
+            """, Long.class);
+
+    // Продлеваем или отпускаем аренду, только если она всё ещё наша
+    private static final DefaultRedisScript<Long> RENEW = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end
+            return 0
+            """, Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private final ScheduledExecutorService leaseExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scheduler-leader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long fencingToken;
+
+    private volatile long validUntilNanos;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            leaseExecutor.scheduleWithFixedDelay(this::renewOrAcquire, 0, renewMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // При штатной остановке аренда отпускается сразу, не дожидаясь TTL
+    @PreDestroy
+    public void shutdown() {
+        leaseExecutor.shutdownNow();
+        long token = fencingToken;
+        if (token > 0) {
+            fencingToken = 0;
+            try {
+                redisTemplate.execute(RELEASE, List.of(leaseKey), leaseValue(token));
+            } catch (RuntimeException e) {
+                log.warn("Failed to release scheduler leadership: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isLeader() {
+        return !enabled || (fencingToken > 0 && System.nanoTime() < validUntilNanos);
+    }
+
+    // 0 - экземпляр не лидер (или выбор лидера выключен)
+    public long getFencingToken() {
+        return isLeader() ? fencingToken : 0;
+    }
+
+    /**
+     * Можно ли ещё применять результаты, полученные под этим токеном: экземпляр по-прежнему лидер
+     * и аренда в Redis всё ещё принадлежит ему с тем же токеном. Проверка на момент вызова, не атомарна с записью.
+     */
+    public boolean holds(long token) {
+
+        if (!enabled) {
+            return true;
+        }
+        if (token <= 0 || token != fencingToken || !isLeader()) {
+            return false;
+        }
+        try {
+            return leaseValue(token).equals(redisTemplate.opsForValue().get(leaseKey));
+        } catch (RuntimeException e) {
+            log.warn("Failed to verify scheduler leadership: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public LeaderStatusResponse getStatus() {
+
+        LeaderStatusResponse.LeaderStatusResponseBuilder status = LeaderStatusResponse.builder()
+                .enabled(enabled)
+                .instanceId(fleetShardSelector.getInstanceId())
+                .leader(enabled && isLeader());
+
+        if (!enabled) {
+            return status.build();
+        }
+
+        try {
+            String value = redisTemplate.opsForValue().get(leaseKey);
+            if (value != null) {
+                int separator = value.lastIndexOf('|');
+                status.leaderInstanceId(value.substring(0, separator))
+                        .fencingToken(Long.parseLong(value.substring(separator + 1)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to read scheduler leader: {}", e.getMessage());
+        }
+        return status.build();
+    }
+
+    private void renewOrAcquire() {
+
+        long startedNanos = System.nanoTime();
+        try {
+            long token = fencingToken;
+            if (token > 0) {
+                Long renewed = redisTemplate.execute(RENEW, List.of(leaseKey), leaseValue(token), String.valueOf(leaseMillis));
+                if (renewed != null && renewed > 0) {
+                    validUntilNanos = startedNanos + TimeUnit.MILLISECONDS.toNanos(leaseMillis - renewMillis);
+                    return;
+                }
+                fencingToken = 0;
+                log.warn("Scheduler leadership lost (token {})", token);
+            }
+
+            Long acquired = redisTemplate.execute(ACQUIRE, List.of(leaseKey, leaseKey + ":fencing"),
+                    fleetShardSelector.getInstanceId(), String.valueOf(leaseMillis));
+            if (acquired != null && acquired > 0) {
+                validUntilNanos = startedNanos + TimeUnit.MILLISECONDS.toNanos(leaseMillis - renewMillis);
+                fencingToken = acquired;
+                log.info("Scheduler leadership acquired by {} (token {})", fleetShardSelector.getInstanceId(), acquired);
+            }
+        } catch (RuntimeException e) {
+            // Без связи с Redis лидерство истечёт само по validUntilNanos
+            log.warn("Scheduler leader election failed: {}", e.getMessage());
+        }
+    }
+
+    private String leaseValue(long token) {
+        return fleetShardSelector.getInstanceId() + "|" + token;
+    }
+}
@@ -7,7 +7,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Component
@@ -16,6 +18,31 @@ public class ServerAlert {
 
     private List<ServerStatusLog> serversOfflinePast = new ArrayList<>();
 
+    // Серверы, о недоступности которых уже сообщили при частичных проверках
+    private final Set<ServerStatusLog> serversOffline = new HashSet<>();
+
+    /**
+     * Оповещение по части парка: сравнивает только проверенные серверы с их прошлым состоянием.
+     * Возвращает серверы, которые упали, и серверы, которые снова в сети.
+     * CONNECT_ERROR - ошибка самой проверки, состояние сервера по ней не меняется.
+     */
+    public synchronized List<ServerStatusLog> notificationSendForProbed(List<ServerStatusLog> probedServers) {
+
+        List<ServerStatusLog> result = new ArrayList<>();
+
+        for (ServerStatusLog server : probedServers) {
+            if (server.getServerStatus() == ServerStatus.OFFLINE) {
+                if (serversOffline.add(server)) {
+                    result.add(server);
+                }
+            } else if (server.getServerStatus() == ServerStatus.ONLINE && serversOffline.remove(server)) {
+                result.add(server);
+            }
+        }
+
+        return result;
+    }
+
     public List<ServerStatusLog> notificationSend(List<ServerStatusLog> serversOfflineNow) {
 
         List<ServerStatusLog> toSend;
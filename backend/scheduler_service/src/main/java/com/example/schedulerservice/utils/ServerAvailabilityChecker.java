@@ -1,54 +1,236 @@
 package com.example.schedulerservice.utils;
 
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.ProbeResult;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общий HTTP клиент для проверок. Соединения переиспользуются (keep-alive, HTTP/2),
+ * TLS-сессии кэшируются, поэтому повторная проверка того же хоста не платит за полный handshake.
+ * Для разбивки времени по фазам есть отдельная проверка на собственном соединении.
+ * Соединение принято, но HTTP запрос не прошёл (TLS, сброс, нет ответа за таймаут) - сервер OFFLINE:
+ * пользователи до него так же не достучатся. Так же классифицирует и probe_agent.
+ */
+@Slf4j
+@Component
 public class ServerAvailabilityChecker {
 
-    public static Map<String, String> getResponseCodeAndLatency(String serverUrl) {
+    // HEAD - без тела ответа, GET - если сервер не поддерживает HEAD
+    @Value("${probe.http.method:HEAD}")
+    private String method;
 
-        Map<String, String> result = new HashMap<>();
+    // Верхняя граница соединения общего клиента; у каждой проверки свой, обычно меньший, бюджет - см. send()
+    @Value("${probe.http.connectTimeout:2000}")
+    private int connectTimeout;
 
-        long responseCode = 0;
+    // Таймаут ответа = таймаут планировщика * readTimeoutFactor
+    @Value("${probe.http.readTimeoutFactor:10}")
+    private int readTimeoutFactor;
 
-        try {
-            Instant startTime = Instant.now(); // Начало измерения времени
+    @Value("${probe.http.tlsSessionCacheSize:10000}")
+    private int tlsSessionCacheSize;
+
+    @Value("${probe.http.tlsSessionTimeout:86400}")
+    private int tlsSessionTimeout;
+
+    private SSLContext sslContext;
+
+    private HttpClient httpClient;
+
+    /**
+     * Время фаз в наносекундах. tlsNanos и ttfbNanos равны null, если фаза не завершилась,
+     * responseCode равен null, если ответ не получен.
+     */
+    public record PhaseTimings(Integer responseCode, long connectNanos, Long tlsNanos, Long ttfbNanos, long totalNanos) {
+    }
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException {
 
-            // Создаем соединение
-            URL url = new URL(serverUrl);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
+        sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, null, null);
+        sslContext.getClientSessionContext().setSessionCacheSize(tlsSessionCacheSize);
+        sslContext.getClientSessionContext().setSessionTimeout(tlsSessionTimeout);
 
-            // Получаем код ответа
-            responseCode = connection.getResponseCode();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .sslContext(sslContext)
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    public ProbeResult getResponseCodeAndLatency(String serverUrl, int timeout) {
 
-            result.put("code",String.valueOf(responseCode));
+        long startTime = System.nanoTime(); // Начало измерения времени
 
-            // Завершаем соединение
-            connection.disconnect();
+        try {
+            HttpResponse<Void> response = send(serverUrl, method, timeout).get();
 
-            // Замеряем время отклика
-            Instant finishTime = Instant.now();
-            Duration duration = Duration.between(startTime, finishTime);
-            long millis = duration.toMillis();
-            System.out.println("Время отклика: " + millis + " миллисекунд");
+            if (isMethodRejected(response)) {
+                response = send(serverUrl, "GET", timeout).get();
+            }
 
-            result.put("latency",String.valueOf(millis));
+            return toResult(response, startTime);
 
-        } catch (IOException e) {
-            System.err.println("Ошибка подключения к серверу: " + e.getMessage());
+        } catch (ExecutionException e) {
+            log.warn("Ошибка подключения к серверу {}: {}", serverUrl, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            // Прервана сама проверка, а не сервер не ответил
+            Thread.currentThread().interrupt();
+            return ProbeResult.of(ProbeResult.NO_CODE, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime), ServerStatus.CONNECT_ERROR);
         }
 
-        return result;
+        return failedResult(startTime);
     }
 
+    public CompletableFuture<ProbeResult> getResponseCodeAndLatencyAsync(String serverUrl, int timeout) {
 
+        long startTime = System.nanoTime();
 
-}
+        // Отмена результата прерывает текущий запрос
+        CompletableFuture<HttpResponse<Void>> exchange = ProbeFutures.thenComposeCancellable(send(serverUrl, method, timeout),
+                response -> isMethodRejected(response)
+                        ? send(serverUrl, "GET", timeout)
+                        : CompletableFuture.completedFuture(response));
+
+        return ProbeFutures.cancelling(exchange.handle((response, e) -> {
+            if (e != null) {
+                log.warn("Ошибка подключения к серверу {}: {}", serverUrl, e.getMessage());
+                return failedResult(startTime);
+            }
+            return toResult(response, startTime);
+        }), exchange);
+    }
+
+    /**
+     * Запрос на общем клиенте в бюджете этой проверки: timeout на соединение плюс timeout * readTimeoutFactor на ответ.
+     * connectTimeout клиента один на всех и не знает ни таймаута планировщика, ни адаптивного таймаута сервера,
+     * поэтому запрос ограничивается здесь; по истечении бюджета обмен прерывается (cancel закрывает запрос).
+     */
+    private CompletableFuture<HttpResponse<Void>> send(String serverUrl, String requestMethod, int timeout) {
+
+        CompletableFuture<HttpResponse<Void>> exchange = httpClient.sendAsync(
+                buildRequest(serverUrl, requestMethod, timeout), HttpResponse.BodyHandlers.discarding());
+
+        return exchange.copy()
+                .orTimeout((long) timeout * (readTimeoutFactor + 1), TimeUnit.MILLISECONDS)
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        exchange.cancel(true);
+                    }
+                });
+    }
 
+    private HttpRequest buildRequest(String serverUrl, String requestMethod, int timeout) {
+        return HttpRequest.newBuilder(URI.create(serverUrl))
+                .method(requestMethod.toUpperCase(), HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofMillis((long) timeout * readTimeoutFactor))
+                .build();
+    }
+
+    // 405/501 - сервер не умеет HEAD, повторяем запрос через GET
+    private boolean isMethodRejected(HttpResponse<Void> response) {
+        return !"GET".equalsIgnoreCase(method)
+                && (response.statusCode() == 405 || response.statusCode() == 501);
+    }
+
+    // Замеряем время отклика
+    private static ProbeResult toResult(HttpResponse<Void> response, long startTime) {
+        return ProbeResult.of(response.statusCode(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime), ServerStatus.ONLINE);
+    }
+
+    private static ProbeResult failedResult(long startTime) {
+        return ProbeResult.of(ProbeResult.NO_CODE, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime), ServerStatus.OFFLINE);
+    }
+
+    /**
+     * HTTPS запрос на отдельном соединении с замером фаз: TCP connect, TLS handshake и время
+     * от отправки запроса до первого байта ответа. Ошибка соединения пробрасывается,
+     * ошибки после соединения только обрывают замер.
+     */
+    public PhaseTimings getPhaseTimings(InetAddress address, String host, int port, int timeout) throws IOException {
+
+        try (Socket socket = new Socket()) {
+
+            long startTime = System.nanoTime();
+            socket.connect(new InetSocketAddress(address, port), timeout);
+            long connectNanos = System.nanoTime() - startTime;
+
+            Long tlsNanos = null;
+            Long ttfbNanos = null;
+            Integer responseCode = null;
+
+            try {
+                socket.setSoTimeout(timeout * readTimeoutFactor);
+
+                long handshakeStart = System.nanoTime();
+                SSLSocket sslSocket = (SSLSocket) sslContext.getSocketFactory().createSocket(socket, host, port, true);
+                SSLParameters sslParameters = sslSocket.getSSLParameters();
+                sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(sslParameters);
+                sslSocket.startHandshake();
+                tlsNanos = System.nanoTime() - handshakeStart;
+
+                OutputStream out = sslSocket.getOutputStream();
+                out.write((method.toUpperCase() + " / HTTP/1.1\r\n"
+                        + "Host: " + host + "\r\n"
+                        + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+
+                long requestSent = System.nanoTime();
+                InputStream in = sslSocket.getInputStream();
+                int firstByte = in.read();
+                if (firstByte >= 0) {
+                    ttfbNanos = System.nanoTime() - requestSent;
+                    responseCode = readStatusCode(firstByte, in);
+                }
+            } catch (IOException e) {
+                log.warn("Ошибка подключения к серверу {}: {}", host, e.getMessage());
+            }
+
+            return new PhaseTimings(responseCode, connectNanos, tlsNanos, ttfbNanos, System.nanoTime() - startTime);
+        }
+    }
 
+    // Код ответа из строки статуса "HTTP/1.1 200 OK"
+    private static Integer readStatusCode(int firstByte, InputStream in) throws IOException {
+        StringBuilder statusLine = new StringBuilder().append((char) firstByte);
+        int next;
+        while (statusLine.length() < 256 && (next = in.read()) >= 0 && next != '\n') {
+            statusLine.append((char) next);
+        }
+        String[] parts = statusLine.toString().trim().split(" ");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
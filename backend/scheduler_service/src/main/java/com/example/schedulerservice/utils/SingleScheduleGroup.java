@@ -0,0 +1,43 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.entity.Server;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Именованная группа серверов со своим расписанием: набор серверов, период, таймаут и оповещения.
+ */
+@Getter
+@Setter
+public class SingleScheduleGroup {
+
+    private final String name;
+
+    private volatile List<Server> servers = List.of();
+
+    private final AtomicInteger fixedRate;
+
+    private volatile int timeout;
+
+    private volatile boolean enabled;
+
+    private volatile boolean notification;
+
+    private ScheduledFuture<?> scheduledTask;
+
+    // Состояние оповещений группы: какие её серверы уже объявлены недоступными
+    private ServerAlert serverAlert = new ServerAlert();
+
+    public SingleScheduleGroup(String name, int fixedRate, int timeout, boolean enabled, boolean notification) {
+        this.name = name;
+        this.fixedRate = new AtomicInteger(fixedRate);
+        this.timeout = timeout;
+        this.enabled = enabled;
+        this.notification = notification;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Статус сервера по кворуму источников: собственные проверки, проверки с других локальных адресов
+ * и удалённые агенты голосуют за статус, итог выдаётся, как только votes источников в окне windowMillis
+ * сошлись на одном статусе, не дожидаясь остальных. Один источник голосует в окне один раз (повтор заменяет голос).
+ * Пока кворум не набран, статус не меняется: сбой сети у одного источника не делает серверы OFFLINE.
+ * Голос за другой статус после решения снова открывает окно: смена статуса не ждёт конца окна.
+ * Окна серверов, за которые никто не голосовал дольше двух окон (например, удалённых), забываются.
+ * Если источников, которые могут проголосовать за сервер, меньше votes (агенты ушли, нет localAddresses),
+ * кворум не наберётся никогда - тогда результаты идут как есть. Число источников перечитывается раз в окно.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatusQuorum {
+
+    public static final String LOCAL_SOURCE = "local";
+
+    private final ProbeAgentRegistry probeAgentRegistry;
+
+    @Value("${probe.quorum.enabled:false}")
+    private boolean enabled;
+
+    @Value("${probe.quorum.votes:2}")
+    private int votes;
+
+    @Value("${probe.quorum.windowMillis:30000}")
+    private long windowMillis;
+
+    @Value("${probe.quorum.localAddresses:}")
+    private String localAddresses;
+
+    // -1 - ещё не считали
+    private volatile int availableSources = -1;
+
+    private final Map<UUID, Ballot> ballots = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweepMillis = new AtomicLong(System.currentTimeMillis());
+
+    private static final class Ballot {
+
+        private final Map<String, ServerStatusResponse> votes = new LinkedHashMap<>();
+
+        private long openedAtMillis;
+
+        private long lastVoteMillis;
+
+        // null - в текущем окне кворум ещё не набран
+        private ServerStatus decided;
+
+        private boolean evicted;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Учитывает голос. Возвращает итоговый статус, если этот голос набрал кворум, иначе null.
+     * Без кворума (выключен или источников меньше votes) результат возвращается как есть.
+     */
+    public ServerStatusResponse vote(ServerStatusResponse response) {
+
+        if (!enabled || response.getServerId() == null) {
+            return response;
+        }
+
+        String source = response.getSource() != null ? response.getSource() : LOCAL_SOURCE;
+        long now = System.currentTimeMillis();
+        sweep(now);
+
+        int sources = availableSources;
+        if ((sources < 0 ? refreshSources() : sources) < votes) {
+            return response;
+        }
+
+        while (true) {
+            Ballot ballot = ballots.computeIfAbsent(response.getServerId(), id -> new Ballot());
+            synchronized (ballot) {
+                // Окно успели забыть между computeIfAbsent и блокировкой - голосуем в новое
+                if (!ballot.evicted) {
+                    return count(ballot, source, response, now);
+                }
+            }
+        }
+    }
+
+    private ServerStatusResponse count(Ballot ballot, String source, ServerStatusResponse response, long now) {
+
+        ballot.lastVoteMillis = now;
+        if (ballot.votes.isEmpty() || now - ballot.openedAtMillis > windowMillis) {
+            if (!ballot.votes.isEmpty() && ballot.decided == null) {
+                log.info("{}: no quorum of {} among {}", response.getServerUrl(), votes, ballot.votes.keySet());
+            }
+            ballot.votes.clear();
+            ballot.decided = null;
+            ballot.openedAtMillis = now;
+        }
+
+        if (ballot.decided != null) {
+            if (response.getServerStatus() == ballot.decided) {
+                ballot.votes.put(source, response);
+                return null;
+            }
+            // Источник видит другой статус - окно открывается заново, голоса за прежний статус не в счёт
+            log.info("{}: {} reports {} after quorum on {}, reopening", response.getServerUrl(), source,
+                    response.getServerStatus(), ballot.decided);
+            ServerStatus previous = ballot.decided;
+            ballot.votes.values().removeIf(vote -> vote.getServerStatus() == previous);
+            ballot.decided = null;
+            ballot.openedAtMillis = now;
+        }
+
+        ballot.votes.put(source, response);
+
+        int agreeing = 0;
+        StringJoiner sources = new StringJoiner(",");
+        for (Map.Entry<String, ServerStatusResponse> vote : ballot.votes.entrySet()) {
+            if (vote.getValue().getServerStatus() == response.getServerStatus()) {
+                agreeing++;
+                sources.add(vote.getKey());
+            }
+        }
+        if (agreeing < votes) {
+            return null;
+        }
+
+        ballot.decided = response.getServerStatus();
+        return response.toBuilder()
+                .source(sources.toString())
+                .build();
+    }
+
+    // Не чаще раза в окно: забывает окна, в которые не голосовали дольше двух окон
+    private void sweep(long now) {
+
+        long last = lastSweepMillis.get();
+        if (now - last < Math.max(windowMillis, 1) || !lastSweepMillis.compareAndSet(last, now)) {
+            return;
+        }
+        for (Map.Entry<UUID, Ballot> entry : ballots.entrySet()) {
+            Ballot ballot = entry.getValue();
+            synchronized (ballot) {
+                if (now - ballot.lastVoteMillis > 2 * windowMillis) {
+                    ballot.evicted = true;
+                    ballots.remove(entry.getKey(), ballot);
+                }
+            }
+        }
+        refreshSources();
+    }
+
+    // Сам scheduler_service (если не отдал проверки агентам), каждый localAddress и агенты сервера
+    private int refreshSources() {
+
+        int sources = probeAgentRegistry.isOffloading() ? 0 : 1;
+        for (String address : localAddresses.split(",")) {
+            if (!address.isBlank()) {
+                sources++;
+            }
+        }
+        try {
+            sources += probeAgentRegistry.agentsPerServer();
+        } catch (RuntimeException e) {
+            log.warn("Failed to read probe agents: {}", e.getMessage());
+        }
+
+        int previous = availableSources;
+        if (sources != previous) {
+            if (sources < votes) {
+                log.warn("Quorum of {} unreachable with {} sources, results pass through without quorum", votes, sources);
+            } else if (previous >= 0 && previous < votes) {
+                log.info("Quorum of {} reachable again with {} sources", votes, sources);
+            }
+            availableSources = sources;
+        }
+        return sources;
+    }
+
+    int size() {
+        return ballots.size();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.schedulerservice.utils;
+
+
+import com.example.schedulerservice.mapper.ServerStatusMapper;
+import com.example.schedulerservice.model.constant.ProbeType;
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.entity.Server;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Дополнительные голоса для кворума с других локальных интерфейсов: на каждый адрес из
+ * probe.quorum.localAddresses - соединение с сервера, привязанное к этому адресу.
+ * Проверяется только соединение (443 или probePort для TCP): HTTP клиент не умеет выбирать локальный адрес.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VantageProber {
+
+    private static final int HTTPS_PORT = 443;
+
+    private final DnsResolverCache dnsResolverCache;
+    private final ServerStatusMapper serverStatusMapper;
+    private final StatusQuorum statusQuorum;
+
+    // Через запятую, например 10.0.0.5,192.168.1.5
+    @Value("${probe.quorum.localAddresses:}")
+    private String localAddresses;
+
+    @Value("${probe.quorum.vantageThreads:16}")
+    private int vantageThreads;
+
+    private final List<InetAddress> vantages = new ArrayList<>();
+
+    private ExecutorService vantageExecutor;
+
+    @PostConstruct
+    public void init() throws UnknownHostException {
+
+        for (String address : localAddresses.split(",")) {
+            if (!address.isBlank()) {
+                vantages.add(InetAddress.getByName(address.trim()));
+            }
+        }
+
+        if (!vantages.isEmpty()) {
+            vantageExecutor = Executors.newFixedThreadPool(vantageThreads, runnable -> {
+                Thread thread = new Thread(runnable, "probe-vantage");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (vantageExecutor != null) {
+            vantageExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Голоса со всех локальных адресов по серверам раунда; future завершается, когда все голоса отданы в onResult
+     * или когда истёк deadlineMillis - тогда оставшиеся голоса отменяются и в onResult уже не попадут.
+     */
+    public CompletableFuture<Void> probeAll(List<Server> servers, int timeout, long deadlineMillis,
+                                            Consumer<ServerStatusResponse> onResult) {
+
+        if (!statusQuorum.isEnabled() || vantages.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(servers.size() * vantages.size());
+        for (Server server : servers) {
+            for (InetAddress vantage : vantages) {
+                futures.add(CompletableFuture.supplyAsync(() -> probe(server, vantage, timeout), vantageExecutor)
+                        .thenAccept(onResult));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+                .handle((ignored, e) -> {
+                    if (e != null) {
+                        futures.forEach(future -> future.cancel(true));
+                    }
+                    return null;
+                });
+    }
+
+    private ServerStatusResponse probe(Server server, InetAddress vantage, int timeout) {
+
+        ServerStatusResponse response = serverStatusMapper.serverToServerStatusResponse(server);
+        response.setSource("local@" + vantage.getHostAddress());
+
+        DnsResolverCache.Resolution resolution;
+        try {
+            resolution = dnsResolverCache.resolve(server.getServerUrl());
+        } catch (UnknownHostException e) {
+            response.setServerStatus(ServerStatus.CONNECT_ERROR);
+            return response;
+        }
+        response.setDnsNanos(resolution.nanos());
+
+        int port = server.getProbeType() == ProbeType.TCP && server.getProbePort() != null ? server.getProbePort() : HTTPS_PORT;
+
+        try (Socket socket = new Socket()) {
+            socket.bind(new InetSocketAddress(vantage, 0));
+            long startTime = System.nanoTime();
+            socket.connect(new InetSocketAddress(resolution.address(), port), timeout);
+            long connectNanos = System.nanoTime() - startTime;
+
+            response.setServerStatus(ServerStatus.ONLINE);
+            response.setConnectNanos(connectNanos);
+            response.setLatencyMicros(TimeUnit.NANOSECONDS.toMicros(connectNanos));
+        } catch (ConnectException | NoRouteToHostException | SocketTimeoutException e) {
+            response.setServerStatus(ServerStatus.OFFLINE);
+        } catch (IOException e) {
+            // Например, адрес больше не назначен интерфейсу - голос не в пользу ни одного статуса сервера
+            log.warn("Vantage {} failed to probe {}: {}", vantage.getHostAddress(), server.getServerUrl(), e.getMessage());
+            response.setServerStatus(ServerStatus.CONNECT_ERROR);
+        }
+        return response;
+    }
+}
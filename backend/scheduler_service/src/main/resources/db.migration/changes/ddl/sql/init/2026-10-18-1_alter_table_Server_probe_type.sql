@@ -0,0 +1,7 @@
+
+
+ALTER TABLE server
+    ADD COLUMN IF NOT EXISTS probe_type VARCHAR(20) CHECK(probe_type IN ('PING_HTTPS', 'TCP')) DEFAULT 'PING_HTTPS';
+
+ALTER TABLE server
+    ADD COLUMN IF NOT EXISTS probe_port INTEGER;
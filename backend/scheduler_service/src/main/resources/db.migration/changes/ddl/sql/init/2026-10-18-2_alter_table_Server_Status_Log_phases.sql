@@ -0,0 +1,13 @@
+
+
+ALTER TABLE server_status_log
+    ADD COLUMN IF NOT EXISTS dns_nanos BIGINT;
+
+ALTER TABLE server_status_log
+    ADD COLUMN IF NOT EXISTS connect_nanos BIGINT;
+
+ALTER TABLE server_status_log
+    ADD COLUMN IF NOT EXISTS tls_nanos BIGINT;
+
+ALTER TABLE server_status_log
+    ADD COLUMN IF NOT EXISTS ttfb_nanos BIGINT;
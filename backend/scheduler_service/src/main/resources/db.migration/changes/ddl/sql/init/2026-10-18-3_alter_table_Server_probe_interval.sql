@@ -0,0 +1,4 @@
+
+
+ALTER TABLE server
+    ADD COLUMN IF NOT EXISTS probe_interval INTEGER CHECK(probe_interval > 0);
@@ -0,0 +1,5 @@
+
+
+ALTER TABLE server
+    ADD COLUMN IF NOT EXISTS host_max_concurrent INTEGER CHECK(host_max_concurrent > 0),
+    ADD COLUMN IF NOT EXISTS host_rate_per_second DOUBLE PRECISION CHECK(host_rate_per_second > 0);
@@ -0,0 +1,18 @@
+
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'server_status_log' AND column_name = 'response_code' AND data_type = 'character varying') THEN
+        ALTER TABLE server_status_log
+            ALTER COLUMN response_code TYPE INTEGER
+                USING CASE WHEN response_code ~ '^[0-9]+$' THEN response_code::INTEGER END;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'server_status_log' AND column_name = 'latency') THEN
+        ALTER TABLE server_status_log ADD COLUMN IF NOT EXISTS latency_micros BIGINT;
+        UPDATE server_status_log SET latency_micros = latency::BIGINT * 1000 WHERE latency ~ '^[0-9]+$';
+        ALTER TABLE server_status_log DROP COLUMN latency;
+    END IF;
+END $$;
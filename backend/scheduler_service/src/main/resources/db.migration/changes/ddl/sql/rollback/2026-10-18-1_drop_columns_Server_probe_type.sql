@@ -0,0 +1,2 @@
+ALTER TABLE server DROP COLUMN IF EXISTS probe_type;
+ALTER TABLE server DROP COLUMN IF EXISTS probe_port;
@@ -0,0 +1,4 @@
+ALTER TABLE server_status_log DROP COLUMN IF EXISTS dns_nanos;
+ALTER TABLE server_status_log DROP COLUMN IF EXISTS connect_nanos;
+ALTER TABLE server_status_log DROP COLUMN IF EXISTS tls_nanos;
+ALTER TABLE server_status_log DROP COLUMN IF EXISTS ttfb_nanos;
@@ -0,0 +1 @@
+ALTER TABLE server DROP COLUMN IF EXISTS probe_interval;
@@ -0,0 +1,3 @@
+ALTER TABLE server
+    DROP COLUMN IF EXISTS host_max_concurrent,
+    DROP COLUMN IF EXISTS host_rate_per_second;
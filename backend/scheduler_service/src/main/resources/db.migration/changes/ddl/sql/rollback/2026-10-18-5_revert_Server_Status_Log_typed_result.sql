@@ -0,0 +1,11 @@
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'server_status_log' AND column_name = 'latency_micros') THEN
+        ALTER TABLE server_status_log ADD COLUMN IF NOT EXISTS latency VARCHAR(100);
+        UPDATE server_status_log SET latency = (latency_micros / 1000)::VARCHAR WHERE latency_micros IS NOT NULL;
+        ALTER TABLE server_status_log DROP COLUMN latency_micros;
+    END IF;
+
+    ALTER TABLE server_status_log ALTER COLUMN response_code TYPE VARCHAR(100) USING response_code::VARCHAR;
+END $$;
@@ -0,0 +1,212 @@
+package com.example.schedulerservice.utils;
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.BindException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final int TIMEOUT = 10_000;
+
+    private ProbeExecutor probeExecutor;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        probeExecutor = new ProbeExecutor();
+        ReflectionTestUtils.setField(probeExecutor, "mode", "platform");
+        ReflectionTestUtils.setField(probeExecutor, "concurrency", 24);
+        ReflectionTestUtils.setField(probeExecutor, "queueCapacity", 8);
+        probeExecutor.init();
+
+        limiter = new AdaptiveConcurrencyLimiter(probeExecutor);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 8);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 16);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(limiter, "healthyLatencyRatio", 0.5);
+        ReflectionTestUtils.setField(limiter, "timeoutRatio", 0.2);
+        ReflectionTestUtils.setField(limiter, "window", 10);
+        ReflectionTestUtils.setField(limiter, "decreaseCooldownMillis", 0L);
+        ReflectionTestUtils.setField(limiter, "fdHighWatermark", 1.0);
+        ReflectionTestUtils.setField(limiter, "maxQueued", 2);
+        limiter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+        probeExecutor.shutdown();
+    }
+
+    @Test
+    void probesOverLimitWaitInQueue() {
+        Deque<CompletableFuture<ServerStatusResponse>> running = startPending(10);
+
+        assertEquals(8, running.size());
+        assertEquals(8, limiter.getStats().inFlight());
+        assertEquals(2, limiter.getStats().queued());
+    }
+
+    @Test
+    void probesOverQueueCapacityAreRejected() {
+        startPending(10);
+
+        CompletableFuture<ServerStatusResponse> rejected = limiter.execute(TIMEOUT, CompletableFuture::new);
+
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(2, limiter.getStats().queued());
+    }
+
+    @Test
+    void fastProbesUnderLoadRaiseLimitAdditively() {
+        Deque<CompletableFuture<ServerStatusResponse>> running = startPending(8);
+
+        // Держим предел занятым: на место каждой завершившейся проверки встаёт новая
+        for (int i = 0; i < 12; i++) {
+            running.poll().complete(response(ServerStatus.ONLINE));
+            running.addAll(startPending(1));
+        }
+
+        assertEquals(9, limiter.getStats().limit());
+    }
+
+    @Test
+    void limitDoesNotGrowAboveMax() {
+        Deque<CompletableFuture<ServerStatusResponse>> running = startPending(8);
+
+        for (int i = 0; i < 1000; i++) {
+            running.poll().complete(response(ServerStatus.ONLINE));
+            running.addAll(startPending(1));
+        }
+
+        assertEquals(16, limiter.getStats().limit());
+    }
+
+    @Test
+    void maxLimitIsCappedByProbeExecutorCapacity() {
+        ReflectionTestUtils.setField(limiter, "maxLimit", 1000);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 16);
+        limiter.init();
+        Deque<CompletableFuture<ServerStatusResponse>> running = startPending(16);
+
+        for (int i = 0; i < 5000; i++) {
+            running.poll().complete(response(ServerStatus.ONLINE));
+            running.addAll(startPending(1));
+        }
+
+        assertEquals(32, limiter.getStats().limit());
+    }
+
+    @Test
+    void idleLimitDoesNotGrow() {
+        for (int i = 0; i < 100; i++) {
+            limiter.execute(TIMEOUT, () -> CompletableFuture.completedFuture(response(ServerStatus.ONLINE)));
+        }
+
+        assertEquals(8, limiter.getStats().limit());
+    }
+
+    @Test
+    void timeoutsOverRatioHalveLimit() {
+        for (int i = 0; i < 10; i++) {
+            limiter.execute(TIMEOUT, () -> CompletableFuture.completedFuture(timedOut()));
+        }
+
+        assertEquals(4, limiter.getStats().limit());
+        assertEquals(1, limiter.getStats().decreases());
+    }
+
+    @Test
+    void timeoutsUnderRatioKeepLimit() {
+        for (int i = 0; i < 8; i++) {
+            limiter.execute(TIMEOUT, () -> CompletableFuture.completedFuture(response(ServerStatus.OFFLINE)));
+        }
+        for (int i = 0; i < 2; i++) {
+            limiter.execute(TIMEOUT, () -> CompletableFuture.completedFuture(timedOut()));
+        }
+
+        assertEquals(8, limiter.getStats().limit());
+        assertEquals(0, limiter.getStats().decreases());
+    }
+
+    @Test
+    void slowProbeWithoutOwnTimeoutIsNotCountedAsTimeout() {
+        for (int i = 0; i < 10; i++) {
+            limiter.execute(0, () -> CompletableFuture.completedFuture(response(ServerStatus.OFFLINE)));
+        }
+
+        assertEquals(0, limiter.getStats().decreases());
+    }
+
+    @Test
+    void saturatedExecutorHalvesLimitImmediately() {
+        limiter.execute(TIMEOUT, () -> CompletableFuture.failedFuture(new RejectedExecutionException("saturated")));
+
+        assertEquals(4, limiter.getStats().limit());
+        assertTrue(limiter.getStats().lastDecreaseReason().startsWith("probe executor saturated"));
+    }
+
+    @Test
+    void localResourceErrorHalvesLimitImmediately() {
+        limiter.execute(TIMEOUT, () -> CompletableFuture.failedFuture(new BindException("Cannot assign requested address")));
+
+        assertEquals(4, limiter.getStats().limit());
+        assertTrue(limiter.getStats().lastDecreaseReason().startsWith("ephemeral ports exhausted"));
+    }
+
+    @Test
+    void decreasesRespectCooldownAndMinLimit() {
+        ReflectionTestUtils.setField(limiter, "decreaseCooldownMillis", 60_000L);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.execute(TIMEOUT, () -> CompletableFuture.failedFuture(new BindException("Cannot assign requested address")));
+        }
+        assertEquals(4, limiter.getStats().limit());
+
+        ReflectionTestUtils.setField(limiter, "decreaseCooldownMillis", 0L);
+        for (int i = 0; i < 5; i++) {
+            limiter.execute(TIMEOUT, () -> CompletableFuture.failedFuture(new BindException("Cannot assign requested address")));
+        }
+        assertEquals(2, limiter.getStats().limit());
+    }
+
+    private Deque<CompletableFuture<ServerStatusResponse>> startPending(int count) {
+        Deque<CompletableFuture<ServerStatusResponse>> started = new ArrayDeque<>();
+        for (int i = 0; i < count; i++) {
+            limiter.execute(TIMEOUT, () -> {
+                CompletableFuture<ServerStatusResponse> probe = new CompletableFuture<>();
+                started.add(probe);
+                return probe;
+            });
+        }
+        return started;
+    }
+
+    private static ServerStatusResponse timedOut() {
+        ServerStatusResponse response = response(ServerStatus.OFFLINE);
+        response.setTimedOut(true);
+        return response;
+    }
+
+    private static ServerStatusResponse response(ServerStatus status) {
+        return ServerStatusResponse.builder()
+                .serverUrl("example.com")
+                .serverStatus(status)
+                .build();
+    }
+}
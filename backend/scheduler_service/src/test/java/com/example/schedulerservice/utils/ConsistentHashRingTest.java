@@ -0,0 +1,113 @@
+package com.example.schedulerservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 3000;
+
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    void emptyRingHasNoOwner() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(), VIRTUAL_NODES);
+
+        assertTrue(ring.isEmpty());
+        assertNull(ring.ownerOf("key"));
+        assertTrue(ring.ownersOf("key", 2).isEmpty());
+    }
+
+    @Test
+    void ownerDoesNotDependOnMemberOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("c", "a", "b"), VIRTUAL_NODES);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(ring.ownerOf("server-" + i), reordered.ownerOf("server-" + i));
+        }
+    }
+
+    @Test
+    void keysAreSpreadAcrossMembers() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        Map<String, Integer> owned = owners(ring);
+
+        assertEquals(3, owned.size());
+        for (int count : owned.values()) {
+            assertTrue(count > KEYS / 5, "unbalanced ring: " + owned);
+        }
+    }
+
+    @Test
+    void ownersAreDistinctAndStartWithOwner() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+
+        for (int i = 0; i < 100; i++) {
+            String key = "server-" + i;
+            List<String> owners = ring.ownersOf(key, 2);
+
+            assertEquals(2, owners.size());
+            assertNotEquals(owners.get(0), owners.get(1));
+            assertEquals(ring.ownerOf(key), owners.get(0));
+        }
+    }
+
+    @Test
+    void ownersAreCappedByMemberCount() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b"), VIRTUAL_NODES);
+
+        assertEquals(new HashSet<>(List.of("a", "b")), new HashSet<>(ring.ownersOf("key", 5)));
+    }
+
+    @Test
+    void joiningMemberTakesKeysOnlyForItself() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "server-" + i;
+            String previous = before.ownerOf(key);
+            String current = after.ownerOf(key);
+            if (!previous.equals(current)) {
+                assertEquals("d", current, key + " moved between old members");
+                moved++;
+            }
+        }
+
+        assertTrue(moved > KEYS / 8 && moved < KEYS / 2, "moved " + moved);
+    }
+
+    @Test
+    void leavingMemberGivesAwayOnlyItsKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), VIRTUAL_NODES);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b"), VIRTUAL_NODES);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "server-" + i;
+            String previous = before.ownerOf(key);
+            if (!previous.equals("c")) {
+                assertEquals(previous, after.ownerOf(key), key + " moved from a live member");
+            }
+        }
+    }
+
+    private static Map<String, Integer> owners(ConsistentHashRing ring) {
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.ownerOf("server-" + i), 1, Integer::sum);
+        }
+        return owned;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.schedulerservice.utils;
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import com.example.schedulerservice.model.entity.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProbeCircuitBreakerTest {
+
+    private ProbeCircuitBreaker breaker;
+
+    private Server server;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new ProbeCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "enabled", true);
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "baseBackoff", 60L);
+        ReflectionTestUtils.setField(breaker, "maxBackoff", 300L);
+        server = Server.builder().serverId(UUID.randomUUID()).serverUrl("example.com").build();
+    }
+
+    @Test
+    void serverIsProbedUntilThresholdIsReached() {
+        breaker.record(server, response(ServerStatus.OFFLINE));
+        breaker.record(server, response(ServerStatus.OFFLINE));
+
+        assertNull(breaker.backedOffResponse(server));
+    }
+
+    @Test
+    void thresholdOpensBreakerForBaseBackoff() {
+        failTimes(3);
+
+        ServerStatusResponse backedOff = breaker.backedOffResponse(server);
+
+        assertNotNull(backedOff);
+        assertEquals(ServerStatus.OFFLINE, backedOff.getServerStatus());
+        assertBackoffSeconds(60, backedOff);
+    }
+
+    @Test
+    void backoffDoublesWithEveryFailureUpToMax() {
+        failTimes(4);
+        assertBackoffSeconds(120, breaker.backedOffResponse(server));
+
+        failTimes(1);
+        assertBackoffSeconds(240, breaker.backedOffResponse(server));
+
+        failTimes(1);
+        assertBackoffSeconds(300, breaker.backedOffResponse(server));
+
+        failTimes(40);
+        assertBackoffSeconds(300, breaker.backedOffResponse(server));
+    }
+
+    @Test
+    void expiredBackoffLetsOneTrialProbeThrough() {
+        ReflectionTestUtils.setField(breaker, "baseBackoff", 0L);
+        failTimes(3);
+
+        assertNull(breaker.backedOffResponse(server));
+        assertNotNull(breaker.backedOffResponse(server));
+    }
+
+    @Test
+    void releasedTrialProbeIsLetThroughAgain() {
+        ReflectionTestUtils.setField(breaker, "baseBackoff", 0L);
+        failTimes(3);
+        assertNull(breaker.backedOffResponse(server));
+
+        breaker.releaseHalfOpen(server);
+
+        assertNull(breaker.backedOffResponse(server));
+        assertNotNull(breaker.backedOffResponse(server));
+    }
+
+    @Test
+    void failedTrialProbeExtendsBackoff() {
+        ReflectionTestUtils.setField(breaker, "baseBackoff", 0L);
+        failTimes(3);
+        assertNull(breaker.backedOffResponse(server));
+
+        ReflectionTestUtils.setField(breaker, "baseBackoff", 60L);
+        failTimes(1);
+
+        assertBackoffSeconds(120, breaker.backedOffResponse(server));
+    }
+
+    @Test
+    void onlineResultClosesBreaker() {
+        failTimes(5);
+
+        breaker.record(server, response(ServerStatus.ONLINE));
+
+        assertNull(breaker.backedOffResponse(server));
+        failTimes(2);
+        assertNull(breaker.backedOffResponse(server));
+    }
+
+    @Test
+    void failedProbeWithoutResultKeepsLastResponse() {
+        failTimes(2);
+        breaker.record(server, null);
+
+        ServerStatusResponse backedOff = breaker.backedOffResponse(server);
+
+        assertNotNull(backedOff);
+        assertEquals(ServerStatus.OFFLINE, backedOff.getServerStatus());
+    }
+
+    @Test
+    void disabledBreakerNeverBacksOff() {
+        ReflectionTestUtils.setField(breaker, "enabled", false);
+
+        failTimes(10);
+
+        assertNull(breaker.backedOffResponse(server));
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.record(server, response(ServerStatus.OFFLINE));
+        }
+    }
+
+    private ServerStatusResponse response(ServerStatus status) {
+        return ServerStatusResponse.builder()
+                .serverId(server.getServerId())
+                .serverUrl(server.getServerUrl())
+                .serverStatus(status)
+                .build();
+    }
+
+    // nextProbeAt хранится с точностью до секунды в UTC+3
+    private static void assertBackoffSeconds(long expectedSeconds, ServerStatusResponse backedOff) {
+        assertNotNull(backedOff);
+        long nextProbeAt = backedOff.getNextProbeAt().toEpochSecond(ZoneOffset.ofHours(3));
+        long now = LocalDateTime.now(ZoneOffset.ofHours(3)).toEpochSecond(ZoneOffset.ofHours(3));
+        long actual = nextProbeAt - now;
+        assertTrue(Math.abs(actual - expectedSeconds) <= 2, "backoff " + actual + "s, expected " + expectedSeconds + "s");
+    }
+}
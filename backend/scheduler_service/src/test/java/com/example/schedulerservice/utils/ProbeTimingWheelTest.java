@@ -0,0 +1,119 @@
+package com.example.schedulerservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProbeTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void serverIsDueAfterInitialDelayAndThenEveryInterval() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 8);
+        UUID serverId = UUID.randomUUID();
+
+        wheel.schedule(serverId, 3 * TICK, TICK);
+
+        assertEquals(List.of(1L, 4L, 7L, 10L, 13L), dueTicks(wheel, serverId, 15));
+    }
+
+    @Test
+    void intervalLongerThanWheelWaitsFullRounds() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 8);
+        UUID serverId = UUID.randomUUID();
+
+        wheel.schedule(serverId, 20 * TICK, TICK);
+
+        assertEquals(List.of(1L, 21L, 41L), dueTicks(wheel, serverId, 50));
+    }
+
+    @Test
+    void intervalIsRoundedUpToWholeTicks() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 8);
+        UUID serverId = UUID.randomUUID();
+
+        wheel.schedule(serverId, 1500, 1);
+
+        assertEquals(2 * TICK, wheel.intervalMillisOf(serverId));
+        assertEquals(List.of(1L, 3L, 5L), dueTicks(wheel, serverId, 6));
+    }
+
+    @Test
+    void removedServerIsNoLongerDue() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 8);
+        UUID serverId = UUID.randomUUID();
+        wheel.schedule(serverId, TICK, TICK);
+
+        wheel.remove(serverId);
+
+        assertFalse(wheel.contains(serverId));
+        assertEquals(-1, wheel.intervalMillisOf(serverId));
+        assertTrue(dueTicks(wheel, serverId, 10).isEmpty());
+    }
+
+    @Test
+    void rescheduleReplacesPreviousInterval() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 8);
+        UUID serverId = UUID.randomUUID();
+        wheel.schedule(serverId, 2 * TICK, TICK);
+
+        wheel.schedule(serverId, 5 * TICK, TICK);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L, 6L), dueTicks(wheel, serverId, 10));
+    }
+
+    @Test
+    void spreadOffsetIsDeterministicTickAlignedAndInsideInterval() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 512);
+        long interval = 10 * TICK;
+
+        for (int i = 0; i < 1000; i++) {
+            UUID serverId = UUID.randomUUID();
+            long offset = wheel.spreadOffsetMillis(serverId, interval);
+
+            assertEquals(offset, wheel.spreadOffsetMillis(serverId, interval));
+            assertEquals(0, offset % TICK);
+            assertTrue(offset >= 0 && offset < interval, "offset " + offset);
+        }
+    }
+
+    @Test
+    void spreadOffsetUsesEverySlotOfInterval() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 512);
+        long interval = 10 * TICK;
+
+        Set<Long> offsets = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            offsets.add(wheel.spreadOffsetMillis(UUID.randomUUID(), interval));
+        }
+
+        assertEquals(10, offsets.size());
+    }
+
+    @Test
+    void spreadOffsetForIntervalShorterThanTickIsZero() {
+        ProbeTimingWheel wheel = new ProbeTimingWheel(TICK, 8);
+
+        assertEquals(0, wheel.spreadOffsetMillis(UUID.randomUUID(), TICK / 2));
+    }
+
+    private static List<Long> dueTicks(ProbeTimingWheel wheel, UUID serverId, int ticks) {
+        List<Long> due = new ArrayList<>();
+        for (long tick = 1; tick <= ticks; tick++) {
+            if (wheel.advance().contains(serverId)) {
+                due.add(tick);
+            }
+        }
+        return due;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.schedulerservice.utils;
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.ProbeResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ServerAvailabilityCheckerTest {
+
+    private static final int TIMEOUT = 500;
+
+    private ServerAvailabilityChecker checker;
+
+    private ServerSocket acceptingServer;
+
+    private String serverUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        checker = new ServerAvailabilityChecker();
+        ReflectionTestUtils.setField(checker, "method", "HEAD");
+        ReflectionTestUtils.setField(checker, "connectTimeout", TIMEOUT);
+        ReflectionTestUtils.setField(checker, "readTimeoutFactor", 2);
+        ReflectionTestUtils.setField(checker, "tlsSessionCacheSize", 16);
+        ReflectionTestUtils.setField(checker, "tlsSessionTimeout", 60);
+        checker.init();
+
+        // Принимает соединение и сразу его закрывает: TCP есть, HTTPS запрос не проходит
+        acceptingServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (!acceptingServer.isClosed()) {
+                try (Socket ignored = acceptingServer.accept()) {
+                    // закрываем без ответа
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        serverUrl = "https://127.0.0.1:" + acceptingServer.getLocalPort();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        acceptingServer.close();
+    }
+
+    @Test
+    void failedRequestAfterAcceptedConnectionIsOffline() {
+        ProbeResult result = checker.getResponseCodeAndLatencyAsync(serverUrl, TIMEOUT).join();
+
+        assertEquals(ServerStatus.OFFLINE, result.serverStatus());
+        assertFalse(result.hasCode());
+    }
+
+    @Test
+    void blockingProbeClassifiesFailedRequestTheSameWay() {
+        ProbeResult result = checker.getResponseCodeAndLatency(serverUrl, TIMEOUT);
+
+        assertEquals(ServerStatus.OFFLINE, result.serverStatus());
+        assertFalse(result.hasCode());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.schedulerservice.utils;
+
+import com.example.schedulerservice.model.constant.ServerStatus;
+import com.example.schedulerservice.model.dto.response.ServerStatusResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StatusQuorumTest {
+
+    private StatusQuorum quorum;
+
+    private UUID serverId;
+
+    @BeforeEach
+    void setUp() {
+        // Агенты выключены: источники - сам scheduler_service и один localAddress
+        quorum = new StatusQuorum(new ProbeAgentRegistry(null));
+        ReflectionTestUtils.setField(quorum, "enabled", true);
+        ReflectionTestUtils.setField(quorum, "votes", 2);
+        ReflectionTestUtils.setField(quorum, "windowMillis", 30_000L);
+        ReflectionTestUtils.setField(quorum, "localAddresses", "127.0.0.2");
+        serverId = UUID.randomUUID();
+    }
+
+    @Test
+    void disabledQuorumPassesResultThrough() {
+        ReflectionTestUtils.setField(quorum, "enabled", false);
+        ServerStatusResponse response = vote(null, ServerStatus.OFFLINE);
+
+        assertSame(response, quorum.vote(response));
+    }
+
+    @Test
+    void fewerSourcesThanVotesPassResultThrough() {
+        ReflectionTestUtils.setField(quorum, "localAddresses", "");
+        ServerStatusResponse response = vote(null, ServerStatus.OFFLINE);
+
+        assertSame(response, quorum.vote(response));
+    }
+
+    @Test
+    void singleVoteIsNotEnough() {
+        assertNull(quorum.vote(vote(null, ServerStatus.OFFLINE)));
+    }
+
+    @Test
+    void agreeingSourcesDecideStatus() {
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+
+        ServerStatusResponse decided = quorum.vote(vote("agent:a", ServerStatus.OFFLINE));
+
+        assertNotNull(decided);
+        assertEquals(ServerStatus.OFFLINE, decided.getServerStatus());
+        assertEquals(StatusQuorum.LOCAL_SOURCE + ",agent:a", decided.getSource());
+    }
+
+    @Test
+    void repeatedVoteOfOneSourceReplacesIt() {
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+
+        assertNull(quorum.vote(vote(null, ServerStatus.OFFLINE)));
+    }
+
+    @Test
+    void disagreeingSourcesDoNotDecide() {
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+
+        assertNull(quorum.vote(vote("agent:a", ServerStatus.ONLINE)));
+    }
+
+    @Test
+    void majorityDecidesAmongThreeSources() {
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+        quorum.vote(vote("agent:a", ServerStatus.ONLINE));
+
+        ServerStatusResponse decided = quorum.vote(vote("agent:b", ServerStatus.ONLINE));
+
+        assertNotNull(decided);
+        assertEquals(ServerStatus.ONLINE, decided.getServerStatus());
+        assertEquals("agent:a,agent:b", decided.getSource());
+    }
+
+    @Test
+    void decidedStatusIsReportedOncePerWindow() {
+        quorum.vote(vote(null, ServerStatus.ONLINE));
+        quorum.vote(vote("agent:a", ServerStatus.ONLINE));
+
+        assertNull(quorum.vote(vote("agent:b", ServerStatus.ONLINE)));
+    }
+
+    @Test
+    void votesExpireWithWindow() {
+        ReflectionTestUtils.setField(quorum, "windowMillis", -1L);
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+
+        assertNull(quorum.vote(vote("agent:a", ServerStatus.OFFLINE)));
+    }
+
+    @Test
+    void divergingVoteReopensDecidedWindow() {
+        quorum.vote(vote(null, ServerStatus.ONLINE));
+        quorum.vote(vote("agent:a", ServerStatus.ONLINE));
+
+        assertNull(quorum.vote(vote(null, ServerStatus.OFFLINE)));
+        ServerStatusResponse decided = quorum.vote(vote("agent:a", ServerStatus.OFFLINE));
+
+        assertNotNull(decided);
+        assertEquals(ServerStatus.OFFLINE, decided.getServerStatus());
+        assertEquals(StatusQuorum.LOCAL_SOURCE + ",agent:a", decided.getSource());
+    }
+
+    @Test
+    void idleBallotsAreEvicted() {
+        ReflectionTestUtils.setField(quorum, "windowMillis", -1L);
+        ((AtomicLong) ReflectionTestUtils.getField(quorum, "lastSweepMillis")).set(0);
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+        serverId = UUID.randomUUID();
+        ((AtomicLong) ReflectionTestUtils.getField(quorum, "lastSweepMillis")).set(0);
+
+        quorum.vote(vote(null, ServerStatus.OFFLINE));
+
+        assertEquals(1, quorum.size());
+    }
+
+    private ServerStatusResponse vote(String source, ServerStatus status) {
+        return ServerStatusResponse.builder()
+                .serverId(serverId)
+                .serverUrl("example.com")
+                .serverStatus(status)
+                .source(source)
+                .build();
+    }
+}
@@ -370,7 +370,9 @@ const LogsManagement: React.FC<LogsManagementProps> = () => {
 
                 {/* Время отклика */}
                 <div>
-                  <p className="text-white/80 font-medium">{log.latency}</p>
+                  <p className="text-white/80 font-medium">
+                    {log.latencyMicros != null ? `${(log.latencyMicros / 1000).toFixed(1)} мс` : ''}
+                  </p>
                   <p className="text-white/60 text-sm">Время отклика</p>
                 </div>
 
@@ -26,16 +26,15 @@ const ServerManagement: React.FC<ServerManagementProps> = () => {
       serverId: '1',
       serverUrl: 'https://example.com',
       serverName: 'Example Site',
-      responseCode: '200',
-      latency: '45ms',
+      responseCode: 200,
+      latencyMicros: 45000,
       serverStatus: 'ONLINE'
     },
     {
       serverId: '2', 
       serverUrl: 'https://test-server.com',
       serverName: 'Test Server',
-      responseCode: '500',
-      latency: 'timeout',
+      responseCode: 500,
       serverStatus: 'OFFLINE'
     }
   ])
@@ -85,8 +84,8 @@ const ServerManagement: React.FC<ServerManagementProps> = () => {
         serverId: Date.now().toString(),
         serverUrl: newServer.serverUrl,
         serverName: newServer.serverName,
-        responseCode: '200',
-        latency: '0ms',
+        responseCode: 200,
+        latencyMicros: 0,
         serverStatus: 'ONLINE'
       }
       setServers(prev => [...prev, newServerData])
@@ -329,8 +328,8 @@ const ServerManagement: React.FC<ServerManagementProps> = () => {
                   <div>
                     <h3 className="text-xl font-bold text-white">{server.serverName}</h3>
                     <p className="text-white/60">{server.serverUrl}</p>
-                    {server.latency && (
-                      <p className="text-white/40 text-sm">Время отклика: {server.latency}</p>
+                    {server.latencyMicros != null && (
+                      <p className="text-white/40 text-sm">Время отклика: {(server.latencyMicros / 1000).toFixed(1)} мс</p>
                     )}
                   </div>
                 </div>
@@ -5,8 +5,8 @@ export interface Server {
   serverId: string;
   serverUrl: string;
   serverName: string;
-  responseCode?: string;
-  latency?: string;
+  responseCode?: number;
+  latencyMicros?: number;
   serverStatus: 'ONLINE' | 'OFFLINE' | 'CONNECT_ERROR';
 }
 
@@ -19,8 +19,8 @@ export interface ServerStatusResponse {
   serverId: string;
   serverUrl: string;
   serverName: string;
-  responseCode: string;
-  latency: string;
+  responseCode: number;
+  latencyMicros: number;
   serverStatus: 'ONLINE' | 'OFFLINE' | 'CONNECT_ERROR';
 }
 
@@ -58,8 +58,8 @@ export interface ServerLog {
   serverName: string;
   serverUrl: string;
   serverStatus: string;
-  responseCode: string;
-  latency: string;
+  responseCode: number;
+  latencyMicros: number;
   timestamp: string;
 }
 